@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import io.github.ravichaturvedi.exceptionhandler.AsyncExceptionLogger;
+import io.github.ravichaturvedi.exceptionhandler.Swallow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Callable;
+
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.swallow;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.usingLogger;
+
+/**
+ * {@link AsyncExceptionLoggerBenchmark} measures swallowing with a fast and a slow sink,
+ * logged on the calling thread and through an {@link AsyncExceptionLogger}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class AsyncExceptionLoggerBenchmark {
+
+    @Param({"fast", "slow"})
+    public String sink;
+
+    private final Exception exception = new Exception("failure");
+    private final Callable<Integer> callable = () -> {
+        throw exception;
+    };
+
+    private Swallow.Handler syncHandler;
+    private Swallow.Handler asyncHandler;
+    private AsyncExceptionLogger asyncLogger;
+
+    @Setup
+    public void setup() {
+        Swallow.ExceptionLogger logger = "slow".equals(sink) ? e -> Blackhole.consumeCPU(10_000) : e -> Blackhole.consumeCPU(10);
+        syncHandler = usingLogger(logger);
+        asyncLogger = AsyncExceptionLogger.builder(logger).build();
+        asyncHandler = usingLogger(asyncLogger);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        asyncLogger.close();
+    }
+
+    @Benchmark
+    public void callingThread() {
+        swallow(callable, syncHandler);
+    }
+
+    @Benchmark
+    public void asyncLogger() {
+        swallow(callable, asyncHandler);
+    }
+}
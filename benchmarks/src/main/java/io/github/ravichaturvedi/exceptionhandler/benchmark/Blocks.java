@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import io.github.ravichaturvedi.exceptionhandler.Cleanup;
+import io.github.ravichaturvedi.exceptionhandler.Fallback;
+import io.github.ravichaturvedi.exceptionhandler.Runner;
+import io.github.ravichaturvedi.exceptionhandler.Swallow;
+import io.github.ravichaturvedi.exceptionhandler.Wrap;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * {@link Blocks} holds the guarded code-blocks shared by the benchmarks, either succeeding or throwing a checked {@link Exception}.
+ * The blocks and the thrown {@link Exception} are created once, so the benchmarks measure the handling and not the block itself.
+ */
+@State(Scope.Thread)
+public class Blocks {
+
+    @Param({"success", "failure"})
+    public String path;
+
+    public Callable<Integer> callable;
+    public Runner runner;
+    public Swallow.ExceptionLogger logger;
+    public Consumer<Exception> consumer;
+
+    public Wrap.Handler wrapHandler;
+    public Fallback.Handler<Integer> fallbackHandler;
+    public Swallow.Handler swallowHandler;
+    public Cleanup.Handler cleanupHandler;
+
+    public Integer value = 42;
+    public Integer fallbackValue = -1;
+
+    private Exception exception;
+    private int sink;
+
+    @Setup
+    public void setup() {
+        exception = new Exception("benchmark");
+        if ("success".equals(path)) {
+            callable = () -> value;
+            runner = () -> sink++;
+        } else {
+            callable = () -> {
+                throw exception;
+            };
+            runner = () -> {
+                throw exception;
+            };
+        }
+        logger = e -> sink++;
+        consumer = e -> sink++;
+
+        wrapHandler = Wrap.using(RuntimeException::new);
+        fallbackHandler = Fallback.to(fallbackValue);
+        swallowHandler = Swallow.usingLogger(logger);
+        cleanupHandler = Cleanup.with(consumer);
+    }
+}
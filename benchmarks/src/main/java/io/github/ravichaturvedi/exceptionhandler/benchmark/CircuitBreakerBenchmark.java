@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import io.github.ravichaturvedi.exceptionhandler.CircuitBreaker;
+import io.github.ravichaturvedi.exceptionhandler.Fallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * {@link CircuitBreakerBenchmark} measures one {@link CircuitBreaker} shared by as many threads as there are cores,
+ * next to the same call guarded by a window of counters behind a single lock.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class CircuitBreakerBenchmark {
+
+    @Param({"closed", "open"})
+    public String state;
+
+    private final Callable<Integer> callable = () -> 42;
+    private final Fallback.Handler<Integer> handler = Fallback.to(-1);
+
+    private CircuitBreaker breaker;
+
+    private final Object lock = new Object();
+    private long calls;
+    private long failures;
+
+    @Setup
+    public void setup() {
+        breaker = CircuitBreaker.builder()
+                .minimumCalls(1)
+                .waitInOpenState(Duration.ofHours(1))
+                .build();
+        if ("open".equals(state)) {
+            breaker.fallback(() -> {
+                throw new Exception("trip");
+            }, handler);
+        }
+    }
+
+    @Benchmark
+    public Integer circuitBreaker() {
+        return breaker.fallback(callable, handler);
+    }
+
+    @Benchmark
+    public Integer lockedWindow() {
+        synchronized (lock) {
+            if ("open".equals(state)) {
+                return handler.handle(null);
+            }
+        }
+        try {
+            Integer value = callable.call();
+            synchronized (lock) {
+                calls++;
+            }
+            return value;
+        } catch (Exception e) {
+            synchronized (lock) {
+                calls++;
+                failures++;
+            }
+            return handler.handle(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.cleanup;
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.with;
+
+/**
+ * {@link CleanupBenchmark} measures every {@link io.github.ravichaturvedi.exceptionhandler.Cleanup} entry point against a hand-written try/catch.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CleanupBenchmark {
+
+    @Benchmark
+    public void rawTryCatch(Blocks b) {
+        try {
+            b.callable.call();
+        } catch (Exception e) {
+            b.consumer.accept(e);
+        }
+    }
+
+    @Benchmark
+    public void rawTryCatchRunner(Blocks b) {
+        try {
+            b.runner.run();
+        } catch (Exception e) {
+            b.consumer.accept(e);
+        }
+    }
+
+    @Benchmark
+    public void cleanupCallableHandlerLast(Blocks b) {
+        cleanup(b.callable, with(b.consumer));
+    }
+
+    @Benchmark
+    public void cleanupCallableHandlerFirst(Blocks b) {
+        cleanup(with(b.consumer), b.callable);
+    }
+
+    @Benchmark
+    public void cleanupRunnerHandlerLast(Blocks b) {
+        cleanup(b.runner, with(b.consumer));
+    }
+
+    @Benchmark
+    public void cleanupRunnerHandlerFirst(Blocks b) {
+        cleanup(with(b.consumer), b.runner);
+    }
+
+    @Benchmark
+    public void cleanupCallableHoistedHandler(Blocks b) {
+        cleanup(b.callable, b.cleanupHandler);
+    }
+
+    @Benchmark
+    public void cleanupRunnerHoistedHandler(Blocks b) {
+        cleanup(b.runner, b.cleanupHandler);
+    }
+}
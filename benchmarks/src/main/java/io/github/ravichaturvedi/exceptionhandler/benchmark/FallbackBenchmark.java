@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallback;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.toFunc;
+
+/**
+ * {@link FallbackBenchmark} measures every {@link io.github.ravichaturvedi.exceptionhandler.Fallback} entry point against a hand-written try/catch.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FallbackBenchmark {
+
+    @Benchmark
+    public Integer rawTryCatch(Blocks b) {
+        try {
+            return b.callable.call();
+        } catch (Exception e) {
+            return b.fallbackValue;
+        }
+    }
+
+    @Benchmark
+    public Integer fallbackToValueHandlerLast(Blocks b) {
+        return fallback(b.callable, to(b.fallbackValue));
+    }
+
+    @Benchmark
+    public Integer fallbackToValueHandlerFirst(Blocks b) {
+        return fallback(to(b.fallbackValue), b.callable);
+    }
+
+    @Benchmark
+    public Integer fallbackToSupplierHandlerLast(Blocks b) {
+        return fallback(b.callable, to(() -> b.fallbackValue));
+    }
+
+    @Benchmark
+    public Integer fallbackToSupplierHandlerFirst(Blocks b) {
+        return fallback(to(() -> b.fallbackValue), b.callable);
+    }
+
+    @Benchmark
+    public Integer fallbackToFunctionHandlerLast(Blocks b) {
+        return fallback(b.callable, to(e -> b.fallbackValue));
+    }
+
+    @Benchmark
+    public Integer fallbackToFunctionHandlerFirst(Blocks b) {
+        return fallback(to(e -> b.fallbackValue), b.callable);
+    }
+
+    @Benchmark
+    public Integer fallbackToFuncHandlerLast(Blocks b) throws Exception {
+        return fallback(b.callable, toFunc(e -> b.fallbackValue));
+    }
+
+    @Benchmark
+    public Integer fallbackToFuncHandlerFirst(Blocks b) throws Exception {
+        return fallback(toFunc(e -> b.fallbackValue), b.callable);
+    }
+
+    @Benchmark
+    public Integer fallbackHoistedHandler(Blocks b) {
+        return fallback(b.callable, b.fallbackHandler);
+    }
+}
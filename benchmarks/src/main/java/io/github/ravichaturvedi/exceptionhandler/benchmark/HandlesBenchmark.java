@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import io.github.ravichaturvedi.exceptionhandler.Handles;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallback;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.wrap;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * {@link HandlesBenchmark} measures the {@link Handles} combinators linked into a {@link ConstantCallSite},
+ * next to the same {@link io.github.ravichaturvedi.exceptionhandler.Wrap} and {@link io.github.ravichaturvedi.exceptionhandler.Fallback}
+ * functions called with a lambda.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HandlesBenchmark {
+
+    private static final MethodHandle WRAP;
+    private static final MethodHandle FALLBACK;
+
+    static {
+        try {
+            MethodHandle target = MethodHandles.lookup().findStatic(HandlesBenchmark.class, "call", methodType(Integer.class, Blocks.class));
+            WRAP = new ConstantCallSite(Handles.wrap(target, using(RuntimeException::new))).dynamicInvoker();
+            FALLBACK = new ConstantCallSite(Handles.fallback(target, to(-1))).dynamicInvoker();
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Benchmark
+    public Object wrapLambda(Blocks b) {
+        try {
+            return wrap(() -> call(b), b.wrapHandler);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapHandle(Blocks b) throws Throwable {
+        try {
+            return (Integer) WRAP.invokeExact(b);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Integer fallbackLambda(Blocks b) {
+        return fallback(() -> call(b), b.fallbackHandler);
+    }
+
+    @Benchmark
+    public Integer fallbackHandle(Blocks b) throws Throwable {
+        return (Integer) FALLBACK.invokeExact(b);
+    }
+
+    private static Integer call(Blocks b) throws Exception {
+        return b.callable.call();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Main} runs the benchmarks with the GC profiler attached, so every result carries the allocated bytes/op.
+ * Unless a benchmark mode is given on the command line, throughput is reported in ops/s and latency in ns/op.
+ */
+public class Main {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        if (!cmd.getBenchModes().isEmpty()) {
+            new Runner(options(cmd).build()).run();
+            return;
+        }
+
+        new Runner(options(cmd).mode(Mode.Throughput).timeUnit(TimeUnit.SECONDS).build()).run();
+        new Runner(options(cmd).mode(Mode.AverageTime).timeUnit(TimeUnit.NANOSECONDS).build()).run();
+    }
+
+    private static ChainedOptionsBuilder options(CommandLineOptions cmd) {
+        return new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class);
+    }
+}
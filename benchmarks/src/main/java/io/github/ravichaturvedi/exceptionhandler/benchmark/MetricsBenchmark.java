@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import io.github.ravichaturvedi.exceptionhandler.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallback;
+
+/**
+ * {@link MetricsBenchmark} measures {@link Metrics.CallSite#fallback} enabled and disabled, next to the plain {@link io.github.ravichaturvedi.exceptionhandler.Fallback}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    private final Metrics.CallSite callSite = Metrics.callSite("benchmark");
+
+    @Setup
+    public void setup() {
+        Metrics.setEnabled(enabled);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Metrics.setEnabled(true);
+    }
+
+    @Benchmark
+    public Integer plainFallback(Blocks b) {
+        return fallback(b.callable, b.fallbackHandler);
+    }
+
+    @Benchmark
+    public Integer callSiteFallback(Blocks b) {
+        return callSite.fallback(b.callable, b.fallbackHandler);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import io.github.ravichaturvedi.exceptionhandler.Policy;
+import io.github.ravichaturvedi.exceptionhandler.Retry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.cleanup;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallback;
+import static io.github.ravichaturvedi.exceptionhandler.Retry.retry;
+
+/**
+ * {@link PolicyBenchmark} measures retry, cleanup and fallback composed once in a {@link Policy},
+ * next to the same handling nested out of the static functions at the call site.
+ * <p>
+ * The {@code *Megamorphic} benchmarks go through one call site not inlined into the benchmark, with four code-block classes,
+ * after the static functions were used with other code-blocks, as they are in an application calling them from many places.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class PolicyBenchmark {
+
+    private static final Retry.Handler RETRY = Retry.upTo(2);
+
+    private Policy<Integer> policy;
+    private List<Callable<Integer>> callables;
+
+    @Setup
+    public void setup(Blocks b) {
+        policy = Policy.<Integer>builder()
+                .retry(RETRY)
+                .cleanup(b.cleanupHandler)
+                .fallback(b.fallbackHandler)
+                .build();
+
+        callables = Arrays.asList(() -> b.callable.call(), () -> b.callable.call() + 0, () -> b.callable.call() * 1, () -> b.callable.call() - 0);
+        List<Callable<Integer>> others = Arrays.asList(() -> 1, () -> 2, () -> 3, () -> {
+            throw new IOException();
+        });
+        for (int i = 0; i < 100_000; i++) {
+            nested(others.get(i & 3), b);
+            nested(callables.get(i & 3), b);
+        }
+    }
+
+    @Benchmark
+    public Integer policy(Blocks b) {
+        return policy.execute(b.callable);
+    }
+
+    @Benchmark
+    public Integer nested(Blocks b) {
+        return nested(b.callable, b);
+    }
+
+    @Benchmark
+    public int policyMegamorphic(Blocks b) {
+        int sum = 0;
+        for (Callable<Integer> callable : callables) {
+            sum += policySite(callable);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int nestedMegamorphic(Blocks b) {
+        int sum = 0;
+        for (Callable<Integer> callable : callables) {
+            sum += nestedSite(callable, b);
+        }
+        return sum;
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private Integer policySite(Callable<Integer> callable) {
+        return policy.execute(callable);
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private Integer nestedSite(Callable<Integer> callable, Blocks b) {
+        return nested(callable, b);
+    }
+
+    private static Integer nested(Callable<Integer> callable, Blocks b) {
+        return fallback(() -> {
+            try {
+                return retry(callable, RETRY);
+            } catch (Exception e) {
+                cleanup(() -> {
+                    throw e;
+                }, b.cleanupHandler);
+                throw e;
+            }
+        }, b.fallbackHandler);
+    }
+}
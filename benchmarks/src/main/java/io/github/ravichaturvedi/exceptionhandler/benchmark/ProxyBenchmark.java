@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import io.github.ravichaturvedi.exceptionhandler.Fallback;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+/**
+ * {@link ProxyBenchmark} measures the interface implementation generated by {@link Fallback#proxy},
+ * next to a {@link Proxy} doing the same fallback in its {@link java.lang.reflect.InvocationHandler}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class ProxyBenchmark {
+
+    public interface Service {
+        Integer call(int increment) throws Exception;
+    }
+
+    private Service generated;
+    private Service reflective;
+
+    @Setup
+    public void setup(Blocks b) {
+        Service target = increment -> b.callable.call() + increment;
+        generated = Fallback.proxy(Service.class, target, b.fallbackHandler);
+        reflective = (Service) Proxy.newProxyInstance(Service.class.getClassLoader(), new Class<?>[]{Service.class}, (proxy, method, args) -> {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                return b.fallbackHandler.handle((Exception) e.getCause());
+            }
+        });
+    }
+
+    @Benchmark
+    public Integer generatedProxy() throws Exception {
+        return generated.call(1);
+    }
+
+    @Benchmark
+    public Integer jdkProxy() throws Exception {
+        return reflective.call(1);
+    }
+}
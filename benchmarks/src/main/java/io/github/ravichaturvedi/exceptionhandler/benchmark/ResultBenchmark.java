@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import io.github.ravichaturvedi.exceptionhandler.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallback;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.wrap;
+
+/**
+ * {@link ResultBenchmark} measures a three steps pipeline handling the failure of its first step,
+ * rethrowing it through each step next to carrying it down as a {@link Result}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResultBenchmark {
+
+    @Benchmark
+    public Integer fallbackCall(Blocks b) {
+        return fallback(b.callable, b.fallbackHandler);
+    }
+
+    @Benchmark
+    public Integer resultCall(Blocks b) {
+        return Result.attempt(b.callable).orElse(b.fallbackHandler);
+    }
+
+    @Benchmark
+    public Integer rethrowPipeline(Blocks b) {
+        try {
+            int value = step(wrap(b.callable, b.wrapHandler));
+            return step(step(value));
+        } catch (RuntimeException e) {
+            return b.fallbackValue;
+        }
+    }
+
+    @Benchmark
+    public Integer resultPipeline(Blocks b) {
+        return Result.attempt(b.callable)
+                .map(ResultBenchmark::step)
+                .map(ResultBenchmark::step)
+                .map(ResultBenchmark::step)
+                .orElse(b.fallbackHandler);
+    }
+
+    private static int step(int value) {
+        return value + 1;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.swallow;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.usingLogger;
+
+/**
+ * {@link SwallowBenchmark} measures every {@link io.github.ravichaturvedi.exceptionhandler.Swallow} entry point against a hand-written try/catch.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SwallowBenchmark {
+
+    @Benchmark
+    public void rawTryCatch(Blocks b) {
+        try {
+            b.callable.call();
+        } catch (Exception e) {
+            b.logger.log(e);
+        }
+    }
+
+    @Benchmark
+    public void rawTryCatchRunner(Blocks b) {
+        try {
+            b.runner.run();
+        } catch (Exception e) {
+            b.logger.log(e);
+        }
+    }
+
+    @Benchmark
+    public void swallowCallable(Blocks b) {
+        swallow(b.callable);
+    }
+
+    @Benchmark
+    public void swallowCallableHandlerLast(Blocks b) {
+        swallow(b.callable, usingLogger(b.logger));
+    }
+
+    @Benchmark
+    public void swallowCallableHandlerFirst(Blocks b) {
+        swallow(usingLogger(b.logger), b.callable);
+    }
+
+    @Benchmark
+    public void swallowRunner(Blocks b) {
+        swallow(b.runner);
+    }
+
+    @Benchmark
+    public void swallowRunnerHandlerLast(Blocks b) {
+        swallow(b.runner, usingLogger(b.logger));
+    }
+
+    @Benchmark
+    public void swallowRunnerHandlerFirst(Blocks b) {
+        swallow(usingLogger(b.logger), b.runner);
+    }
+
+    @Benchmark
+    public void swallowCallableHoistedHandler(Blocks b) {
+        swallow(b.callable, b.swallowHandler);
+    }
+
+    @Benchmark
+    public void swallowRunnerHoistedHandler(Blocks b) {
+        swallow(b.runner, b.swallowHandler);
+    }
+}
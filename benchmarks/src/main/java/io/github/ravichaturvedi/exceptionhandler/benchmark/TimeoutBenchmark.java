@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.exceptionhandler.Timeout.fallback;
+
+/**
+ * {@link TimeoutBenchmark} measures {@link io.github.ravichaturvedi.exceptionhandler.Timeout#fallback} completing in time,
+ * next to the same call guarded by a {@link ScheduledFuture} interrupting the thread.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class TimeoutBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @Setup
+    public void setup() {
+        scheduler = new ScheduledThreadPoolExecutor(1, Executors.defaultThreadFactory());
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public Integer timingWheel(Blocks b) {
+        return fallback(b.callable, TIMEOUT, b.fallbackHandler);
+    }
+
+    @Benchmark
+    public Integer scheduledFuture(Blocks b) {
+        Thread caller = Thread.currentThread();
+        ScheduledFuture<?> timeout = scheduler.schedule(caller::interrupt, TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+        try {
+            return b.callable.call();
+        } catch (Exception e) {
+            return b.fallbackHandler.handle(e);
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.wrap;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.wrapAll;
+
+/**
+ * {@link WrapBenchmark} measures every {@link io.github.ravichaturvedi.exceptionhandler.Wrap} entry point against a hand-written try/catch.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WrapBenchmark {
+
+    @Benchmark
+    public Object rawTryCatch(Blocks b) {
+        try {
+            try {
+                return b.callable.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object rawTryCatchRunner(Blocks b) {
+        try {
+            try {
+                b.runner.run();
+                return null;
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapCallable(Blocks b) {
+        try {
+            return wrap(b.callable);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapCallableHandlerLast(Blocks b) {
+        try {
+            return wrap(b.callable, using(RuntimeException::new));
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapCallableHandlerFirst(Blocks b) {
+        try {
+            return wrap(using(RuntimeException::new), b.callable);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapAllCallableHandlerLast(Blocks b) {
+        try {
+            return wrapAll(b.callable, using(RuntimeException::new));
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapAllCallableHandlerFirst(Blocks b) {
+        try {
+            return wrapAll(using(RuntimeException::new), b.callable);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapRunner(Blocks b) {
+        try {
+            wrap(b.runner);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapRunnerHandlerLast(Blocks b) {
+        try {
+            wrap(b.runner, using(RuntimeException::new));
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapRunnerHandlerFirst(Blocks b) {
+        try {
+            wrap(using(RuntimeException::new), b.runner);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapAllRunnerHandlerLast(Blocks b) {
+        try {
+            wrapAll(b.runner, using(RuntimeException::new));
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapAllRunnerHandlerFirst(Blocks b) {
+        try {
+            wrapAll(using(RuntimeException::new), b.runner);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapCallableHoistedHandler(Blocks b) {
+        try {
+            return wrap(b.callable, b.wrapHandler);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object wrapRunnerHoistedHandler(Blocks b) {
+        try {
+            wrap(b.runner, b.wrapHandler);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
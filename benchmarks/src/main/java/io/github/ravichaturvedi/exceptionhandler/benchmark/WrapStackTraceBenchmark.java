@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.benchmark;
+
+import io.github.ravichaturvedi.exceptionhandler.StackTracePolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.setDefaultStackTracePolicy;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.wrap;
+
+/**
+ * {@link WrapStackTraceBenchmark} measures the failure path of {@link io.github.ravichaturvedi.exceptionhandler.Wrap} for every {@link StackTracePolicy},
+ * with the guarded block running below the given number of stack frames.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class WrapStackTraceBenchmark {
+
+    @Param({"full", "none", "sampled", "truncated"})
+    public String policy;
+
+    @Param({"16", "128"})
+    public int stackDepth;
+
+    private Callable<Integer> callable;
+
+    @Setup
+    public void setup() {
+        Exception exception = new Exception("benchmark");
+        callable = () -> {
+            throw exception;
+        };
+
+        switch (policy) {
+            case "none":
+                setDefaultStackTracePolicy(StackTracePolicy.none());
+                break;
+            case "sampled":
+                setDefaultStackTracePolicy(StackTracePolicy.sampled(100));
+                break;
+            case "truncated":
+                setDefaultStackTracePolicy(StackTracePolicy.truncated(8));
+                break;
+            default:
+                setDefaultStackTracePolicy(StackTracePolicy.full());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        setDefaultStackTracePolicy(StackTracePolicy.full());
+    }
+
+    @Benchmark
+    public Object wrapFailure() {
+        return below(stackDepth);
+    }
+
+    private Object below(int depth) {
+        if (depth > 0) {
+            return below(depth - 1);
+        }
+
+        try {
+            return wrap(callable);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
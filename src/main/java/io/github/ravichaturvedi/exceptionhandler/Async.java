@@ -0,0 +1,342 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * {@link Async} provides the asynchronous counterparts of {@link Wrap}, {@link Fallback}, {@link Swallow} and {@link Cleanup}.
+ * <p>
+ * The {@code *Async} functions run the provided code-block on the given {@link Executor} and apply the handler on its completion.
+ * The other functions apply the handler to an existing {@link CompletionStage}, unwrapping the {@link CompletionException} added by
+ * the stages in between, so the handler sees the original {@link Exception} and the result is failed with the handled one directly.
+ */
+public class Async {
+
+    private static final Executor VIRTUAL_THREADS = virtualThreads();
+
+    /**
+     * {@link DaemonThreads} holds the {@link Executor} for the blocking code-blocks on the JVMs without virtual threads, created on first use.
+     */
+    private static final class DaemonThreads {
+        private static final Executor EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "exceptionhandler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the {@link Executor} starting a virtual thread per task when the JVM supports them,
+     * otherwise the {@link ForkJoinPool#commonPool()}.
+     * @return
+     */
+    public static Executor virtualThreadExecutor() {
+        return VIRTUAL_THREADS;
+    }
+
+    /**
+     * Returns the {@link Executor} for the code-blocks which may block: the virtual threads when the JVM supports them,
+     * otherwise a cached pool of daemon threads, so they can not starve the {@link ForkJoinPool#commonPool()}.
+     * @return
+     */
+    static Executor blockingExecutor() {
+        return VIRTUAL_THREADS instanceof ForkJoinPool ? DaemonThreads.EXECUTOR : VIRTUAL_THREADS;
+    }
+
+    private static Executor virtualThreads() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return ForkJoinPool.commonPool();
+        }
+    }
+
+    /**
+     * Runs the provided {@link Callable} on the {@link Executor}, wrapping the checked {@link Exception} into the {@link RuntimeException}.
+     *
+     * @param callable
+     * @param executor
+     * @param <V>
+     * @return
+     */
+    public static <V> CompletableFuture<V> wrapAsync(Callable<V> callable, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> Wrap.wrap(callable), executor);
+    }
+
+    /**
+     * Runs the provided {@link Callable} on the {@link Executor}, wrapping the checked {@link Exception} into the {@link RuntimeException} (using {@link Wrap.Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @param executor
+     * @param <V>
+     * @return
+     */
+    public static <V> CompletableFuture<V> wrapAsync(Callable<V> callable, Wrap.Handler handler, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> Wrap.wrap(callable, handler), executor);
+    }
+
+    /**
+     * Runs the provided {@link Callable} on the {@link Executor}, wrapping all the {@link Exception} into the {@link RuntimeException} (using {@link Wrap.Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @param executor
+     * @param <V>
+     * @return
+     */
+    public static <V> CompletableFuture<V> wrapAllAsync(Callable<V> callable, Wrap.Handler handler, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> Wrap.wrapAll(callable, handler), executor);
+    }
+
+    /**
+     * Runs the provided {@link Runner} on the {@link Executor}, wrapping the checked {@link Exception} into the {@link RuntimeException}.
+     *
+     * @param runner
+     * @param executor
+     * @return
+     */
+    public static CompletableFuture<Void> wrapAsync(Runner runner, Executor executor) {
+        return CompletableFuture.runAsync(() -> Wrap.wrap(runner), executor);
+    }
+
+    /**
+     * Runs the provided {@link Runner} on the {@link Executor}, wrapping the checked {@link Exception} into the {@link RuntimeException} (using {@link Wrap.Handler}).
+     *
+     * @param runner
+     * @param handler
+     * @param executor
+     * @return
+     */
+    public static CompletableFuture<Void> wrapAsync(Runner runner, Wrap.Handler handler, Executor executor) {
+        return CompletableFuture.runAsync(() -> Wrap.wrap(runner, handler), executor);
+    }
+
+    /**
+     * Runs the provided {@link Callable} on the {@link Executor}, falling back to the {@link Fallback.Handler} if it throws an {@link Exception}.
+     *
+     * @param callable
+     * @param handler
+     * @param executor
+     * @param <V>
+     * @return
+     */
+    public static <V> CompletableFuture<V> fallbackAsync(Callable<V> callable, Fallback.Handler<V> handler, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> Fallback.fallback(callable, handler), executor);
+    }
+
+    /**
+     * Runs the provided {@link Callable} on the {@link Executor}, swallowing the {@link Exception} it throws using the {@link Swallow.Handler}.
+     *
+     * @param callable
+     * @param handler
+     * @param executor
+     * @return
+     */
+    public static CompletableFuture<Void> swallowAsync(Callable<?> callable, Swallow.Handler handler, Executor executor) {
+        return CompletableFuture.runAsync(() -> Swallow.swallow(callable, handler), executor);
+    }
+
+    /**
+     * Runs the provided {@link Runner} on the {@link Executor}, swallowing the {@link Exception} it throws using the {@link Swallow.Handler}.
+     *
+     * @param runner
+     * @param handler
+     * @param executor
+     * @return
+     */
+    public static CompletableFuture<Void> swallowAsync(Runner runner, Swallow.Handler handler, Executor executor) {
+        return CompletableFuture.runAsync(() -> Swallow.swallow(runner, handler), executor);
+    }
+
+    /**
+     * Runs the provided {@link Callable} on the {@link Executor}, cleaning up the {@link Exception} it throws with the {@link Cleanup.Handler}.
+     *
+     * @param callable
+     * @param handler
+     * @param executor
+     * @return
+     */
+    public static CompletableFuture<Void> cleanupAsync(Callable<?> callable, Cleanup.Handler handler, Executor executor) {
+        return CompletableFuture.runAsync(() -> Cleanup.cleanup(callable, handler), executor);
+    }
+
+    /**
+     * Runs the provided {@link Runner} on the {@link Executor}, cleaning up the {@link Exception} it throws with the {@link Cleanup.Handler}.
+     *
+     * @param runner
+     * @param handler
+     * @param executor
+     * @return
+     */
+    public static CompletableFuture<Void> cleanupAsync(Runner runner, Cleanup.Handler handler, Executor executor) {
+        return CompletableFuture.runAsync(() -> Cleanup.cleanup(runner, handler), executor);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} failing the provided {@link CompletionStage} into the {@link RuntimeException} (using {@link Wrap.Handler}).
+     * Unchecked {@link Exception} and {@link Error} fail the result as is.
+     *
+     * @param stage
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public static <V> CompletableFuture<V> wrap(CompletionStage<V> stage, Wrap.Handler handler) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        stage.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(failure);
+            if (cause instanceof Exception && !(cause instanceof RuntimeException)) {
+                result.completeExceptionally(handle(handler, (Exception) cause));
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Wrap all the {@link Exception} failing the provided {@link CompletionStage} into the {@link RuntimeException} (using {@link Wrap.Handler}).
+     * {@link Error} fail the result as is.
+     *
+     * @param stage
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public static <V> CompletableFuture<V> wrapAll(CompletionStage<V> stage, Wrap.Handler handler) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        stage.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(failure);
+            result.completeExceptionally(cause instanceof Exception ? handle(handler, (Exception) cause) : cause);
+        });
+        return result;
+    }
+
+    /**
+     * Fallback to the {@link Fallback.Handler}, if the provided {@link CompletionStage} fails with an {@link Exception}.
+     * {@link Error} fail the result as is.
+     *
+     * @param stage
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public static <V> CompletableFuture<V> fallback(CompletionStage<V> stage, Fallback.Handler<V> handler) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        stage.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(failure);
+            if (!(cause instanceof Exception)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            try {
+                result.complete(handler.handle((Exception) cause));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Swallow the {@link Exception} failing the provided {@link CompletionStage}, using the {@link Swallow.Handler}.
+     * {@link Error} fail the result as is.
+     *
+     * @param stage
+     * @param handler
+     * @return
+     */
+    public static CompletableFuture<Void> swallow(CompletionStage<?> stage, Swallow.Handler handler) {
+        return consume(stage, handler::handle);
+    }
+
+    /**
+     * Cleanup the {@link Exception} failing the provided {@link CompletionStage}, with the {@link Cleanup.Handler}.
+     * {@link Error} fail the result as is.
+     *
+     * @param stage
+     * @param handler
+     * @return
+     */
+    public static CompletableFuture<Void> cleanup(CompletionStage<?> stage, Cleanup.Handler handler) {
+        return consume(stage, handler::handle);
+    }
+
+    private static CompletableFuture<Void> consume(CompletionStage<?> stage, Consumer<Exception> handler) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        stage.whenComplete((value, failure) -> {
+            if (failure == null) {
+                result.complete(null);
+                return;
+            }
+            Throwable cause = unwrap(failure);
+            if (!(cause instanceof Exception)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            try {
+                handler.accept((Exception) cause);
+                result.complete(null);
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    private static Throwable handle(Wrap.Handler handler, Exception e) {
+        try {
+            return handler.handle(e);
+        } catch (Throwable t) {
+            return t;
+        }
+    }
+
+    /**
+     * Returns the original failure, below the {@link CompletionException} layers added by the dependent stages.
+     * @param failure
+     * @return
+     */
+    static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link AsyncExceptionLogger} is a {@link Swallow.ExceptionLogger} handing the {@link Exception} over to a background thread,
+ * which drains them in batches to the delegate {@link Swallow.ExceptionLogger}.
+ * <p>
+ * The {@link Exception} are kept in a bounded lock-free ring buffer, so logging costs the same whatever the speed of the delegate.
+ * When the buffer is full the {@link Overflow} policy applies, and the {@link Exception} dropped are counted in {@link #droppedCount()}.
+ */
+public class AsyncExceptionLogger implements Swallow.ExceptionLogger, AutoCloseable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * {@link Overflow} decides what happens to an {@link Exception} logged while the buffer is full.
+     */
+    public enum Overflow {
+        /**
+         * Drops the {@link Exception} being logged.
+         */
+        DROP_NEWEST,
+        /**
+         * Drops the oldest {@link Exception} in the buffer to make room for the one being logged.
+         */
+        DROP_OLDEST,
+        /**
+         * Waits for the background thread to make room.
+         */
+        BLOCK
+    }
+
+    private final Swallow.ExceptionLogger delegate;
+    private final Overflow overflow;
+    private final int batchSize;
+
+    // Bounded MPMC queue (D. Vyukov): each slot carries the sequence telling whether it is free to write or ready to read.
+    // Producers and the consumer only contend on their own cursor, DROP_OLDEST producers read like the consumer does.
+    private final AtomicReferenceArray<Exception> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder logged = new LongAdder();
+    private final Thread consumer;
+    private volatile boolean sleeping;
+    private volatile boolean closed;
+
+    private AsyncExceptionLogger(Builder builder) {
+        this.delegate = builder.delegate;
+        this.overflow = builder.overflow;
+        this.batchSize = builder.batchSize;
+
+        int capacity = Integer.highestOneBit(builder.capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+
+        this.consumer = new Thread(this::drain, builder.threadName);
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Returns the {@link Builder} of an {@link AsyncExceptionLogger} logging to the given {@link Swallow.ExceptionLogger}.
+     * @param delegate
+     * @return
+     */
+    public static Builder builder(Swallow.ExceptionLogger delegate) {
+        return new Builder(delegate);
+    }
+
+    /**
+     * Hands the {@link Exception} over to the background thread, applying the {@link Overflow} policy when the buffer is full.
+     * {@link Exception} logged once closed are dropped.
+     * @param e
+     */
+    @Override
+    public void log(Exception e) {
+        if (closed || !offer(e) && !overflow(e)) {
+            dropped.increment();
+            return;
+        }
+        if (closed && !consumer.isAlive()) {
+            // Offered after close drained the buffer, nothing else will log it.
+            drainClosed();
+            return;
+        }
+        if (sleeping) {
+            sleeping = false;
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Returns the number of {@link Exception} dropped because the buffer was full or the logger closed.
+     * @return
+     */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the number of {@link Exception} passed to the delegate {@link Swallow.ExceptionLogger}.
+     * @return
+     */
+    public long loggedCount() {
+        return logged.sum();
+    }
+
+    /**
+     * Stops accepting {@link Exception}, and waits for the background thread to log the ones in the buffer.
+     * An interruption doesn't stop the wait, the interrupt status is restored once closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                consumer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        // A producer racing with close may have offered after the background thread found the buffer empty.
+        drainClosed();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Logs the {@link Exception} left in the buffer once the background thread stopped, one caller at a time as it does.
+     */
+    private synchronized void drainClosed() {
+        Exception e;
+        while ((e = poll()) != null) {
+            try {
+                delegate.log(e);
+            } catch (RuntimeException ignored) {
+                // A failing delegate must not keep the rest of the buffer from being logged.
+            }
+            logged.increment();
+        }
+    }
+
+    private boolean overflow(Exception e) {
+        switch (overflow) {
+            case DROP_OLDEST:
+                while (!offer(e)) {
+                    if (poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                return true;
+            case BLOCK:
+                while (!offer(e)) {
+                    if (closed) {
+                        return false;
+                    }
+                    LockSupport.unpark(consumer);
+                    LockSupport.parkNanos(this, FULL_PARK_NANOS);
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean offer(Exception e) {
+        long pos = tail.get();
+        for (;;) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(index, e);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    private Exception poll() {
+        long pos = head.get();
+        for (;;) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    Exception e = slots.get(index);
+                    slots.lazySet(index, null);
+                    sequences.set(index, pos + mask + 1);
+                    return e;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    private void drain() {
+        Exception[] batch = new Exception[batchSize];
+        for (;;) {
+            int size = 0;
+            Exception e;
+            while (size < batch.length && (e = poll()) != null) {
+                batch[size++] = e;
+            }
+            for (int i = 0; i < size; i++) {
+                try {
+                    delegate.log(batch[i]);
+                } catch (RuntimeException ignored) {
+                    // A failing delegate must not stop the background thread.
+                }
+                batch[i] = null;
+            }
+            logged.add(size);
+
+            if (size == 0) {
+                if (closed) {
+                    return;
+                }
+                // Announce the sleep before re-checking the buffer, so a producer can't offer unnoticed in between.
+                sleeping = true;
+                if (head.get() == tail.get() && !closed) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                sleeping = false;
+            }
+        }
+    }
+
+    /**
+     * {@link Builder} configures the {@link AsyncExceptionLogger}.
+     */
+    public static final class Builder {
+        private final Swallow.ExceptionLogger delegate;
+        private int capacity = 1024;
+        private int batchSize = 64;
+        private Overflow overflow = Overflow.DROP_NEWEST;
+        private String threadName = "exception-logger";
+
+        private Builder(Swallow.ExceptionLogger delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Sets the number of {@link Exception} the buffer holds, rounded up to a power of two, defaults to 1024.
+         * @param capacity
+         * @return
+         */
+        public Builder capacity(int capacity) {
+            if (capacity < 2 || capacity > 1 << 30) {
+                throw new IllegalArgumentException("Capacity must be in [2, 2^30]: " + capacity);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of {@link Exception} drained from the buffer at once, defaults to 64.
+         * @param batchSize
+         * @return
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = Math.max(1, batchSize);
+            return this;
+        }
+
+        /**
+         * Sets the {@link Overflow} policy, defaults to {@link Overflow#DROP_NEWEST}.
+         * @param overflow
+         * @return
+         */
+        public Builder overflow(Overflow overflow) {
+            this.overflow = overflow;
+            return this;
+        }
+
+        /**
+         * Sets the name of the background thread, defaults to "exception-logger".
+         * @param threadName
+         * @return
+         */
+        public Builder threadName(String threadName) {
+            this.threadName = threadName;
+            return this;
+        }
+
+        /**
+         * Returns the {@link AsyncExceptionLogger}, starting its background thread.
+         * @return
+         */
+        public AsyncExceptionLogger build() {
+            return new AsyncExceptionLogger(this);
+        }
+    }
+}
@@ -13,25 +13,21 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package io.github.ravichaturvedi.exceptionhandler;
 
+package io.github.ravichaturvedi.exceptionhandler;
 
-import java.util.concurrent.Callable;
 
 /**
- * {@link Callables} provides helper method to deal with {@link Callable}.
+ * {@link BooleanCallable} specifies the semantics of the piece of code which returns a boolean but may throw {@link Exception}.
  */
-class Callables {
+@FunctionalInterface
+public interface BooleanCallable {
 
     /**
-     * Converts a runner into a {@link Callable}.
-     * @param runner
+     * Run some piece of code which returns a boolean but can throw exception.
+     *
      * @return
+     * @throws Exception
      */
-    static Callable<?> from(Runner runner) {
-        return () -> {
-            runner.run();
-            return null;
-        };
-    }
+    boolean call() throws Exception;
 }
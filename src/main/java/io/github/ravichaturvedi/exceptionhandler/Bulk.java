@@ -0,0 +1,339 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link Bulk} provides static functions to run many independent code-blocks in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * At most {@code parallelism} workers (the calling thread included) claim the code-blocks by position from a shared cursor,
+ * so no task is created per code-block. The outcome is gathered in {@link Results}, which holds the values and the failures
+ * in plain arrays indexed by position, without any wrapper object per code-block.
+ */
+public class Bulk {
+
+    private static final byte NOT_RUN = 0;
+    private static final byte SUCCESS = 1;
+    private static final byte FAILURE = 2;
+
+    /**
+     * {@link Mode} decides what happens after a code-block fails.
+     */
+    public enum Mode {
+        /**
+         * Runs every code-block, whatever fails.
+         */
+        COLLECT_ALL,
+        /**
+         * Stops starting code-blocks after the first failure, the ones already running complete.
+         */
+        FAIL_FAST
+    }
+
+    /**
+     * {@link Results} holds the outcome of every code-block by position.
+     * @param <V>
+     */
+    public static final class Results<V> {
+        private final Object[] values;
+        private final Exception[] failures;
+        private final byte[] states;
+        private final int successCount;
+        private final int failureCount;
+
+        private Results(Object[] values, Exception[] failures, byte[] states) {
+            this.values = values;
+            this.failures = failures;
+            this.states = states;
+            int successes = 0;
+            int failed = 0;
+            for (byte state : states) {
+                if (state == SUCCESS) {
+                    successes++;
+                } else if (state == FAILURE) {
+                    failed++;
+                }
+            }
+            this.successCount = successes;
+            this.failureCount = failed;
+        }
+
+        /**
+         * Returns the number of code-blocks.
+         * @return
+         */
+        public int size() {
+            return states.length;
+        }
+
+        /**
+         * Returns whether the code-block at the given position returned a value.
+         * @param index
+         * @return
+         */
+        public boolean isSuccess(int index) {
+            return states[index] == SUCCESS;
+        }
+
+        /**
+         * Returns whether the code-block at the given position threw an {@link Exception}.
+         * @param index
+         * @return
+         */
+        public boolean isFailure(int index) {
+            return states[index] == FAILURE;
+        }
+
+        /**
+         * Returns whether the code-block at the given position was never started, because of an earlier failure in {@link Mode#FAIL_FAST}.
+         * @param index
+         * @return
+         */
+        public boolean isCancelled(int index) {
+            return states[index] == NOT_RUN;
+        }
+
+        /**
+         * Returns the value of the code-block at the given position, the handler's value if it failed, null if it was cancelled.
+         * @param index
+         * @return
+         */
+        @SuppressWarnings("unchecked")
+        public V get(int index) {
+            return (V) values[index];
+        }
+
+        /**
+         * Returns the {@link Exception} thrown by the code-block at the given position, null if it did not fail.
+         * @param index
+         * @return
+         */
+        public Exception failure(int index) {
+            return failures[index];
+        }
+
+        /**
+         * Returns the number of code-blocks which returned a value.
+         * @return
+         */
+        public int successCount() {
+            return successCount;
+        }
+
+        /**
+         * Returns the number of code-blocks which threw an {@link Exception}.
+         * @return
+         */
+        public int failureCount() {
+            return failureCount;
+        }
+
+        /**
+         * Returns the number of code-blocks which were never started.
+         * @return
+         */
+        public int cancelledCount() {
+            return states.length - successCount - failureCount;
+        }
+    }
+
+    /**
+     * Runs the provided {@link Callable} in parallel on the common {@link ForkJoinPool}, recording the value or the {@link Exception} of each.
+     *
+     * @param tasks
+     * @param mode
+     * @param parallelism
+     * @param <V>
+     * @return
+     */
+    public static <V> Results<V> invokeAll(List<? extends Callable<V>> tasks, Mode mode, int parallelism) {
+        return invokeAll(tasks, mode, parallelism, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the provided {@link Callable} in parallel on the given {@link ForkJoinPool}, recording the value or the {@link Exception} of each.
+     *
+     * @param tasks
+     * @param mode
+     * @param parallelism
+     * @param pool
+     * @param <V>
+     * @return
+     */
+    public static <V> Results<V> invokeAll(List<? extends Callable<V>> tasks, Mode mode, int parallelism, ForkJoinPool pool) {
+        return run(tasks.toArray(new Callable<?>[0]), null, mode, parallelism, pool);
+    }
+
+    /**
+     * Runs the provided {@link Callable} in parallel on the common {@link ForkJoinPool}, recording the value or the {@link Exception} of each.
+     *
+     * @param tasks
+     * @param mode
+     * @param parallelism
+     * @param <V>
+     * @return
+     */
+    @SafeVarargs
+    public static <V> Results<V> invokeAll(Mode mode, int parallelism, Callable<V>... tasks) {
+        // Copied so the generic varargs array never escapes this method.
+        return run(Arrays.copyOf(tasks, tasks.length, Callable[].class), null, mode, parallelism, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs all the provided {@link Callable} in parallel on the common {@link ForkJoinPool}, falling back to the {@link Fallback.Handler}
+     * for the ones throwing an {@link Exception}. The {@link Exception} are recorded as well.
+     *
+     * @param tasks
+     * @param handler
+     * @param parallelism
+     * @param <V>
+     * @return
+     */
+    public static <V> Results<V> fallbackAll(List<? extends Callable<V>> tasks, Fallback.Handler<V> handler, int parallelism) {
+        return fallbackAll(tasks, handler, parallelism, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs all the provided {@link Callable} in parallel on the given {@link ForkJoinPool}, falling back to the {@link Fallback.Handler}
+     * for the ones throwing an {@link Exception}. The {@link Exception} are recorded as well.
+     *
+     * @param tasks
+     * @param handler
+     * @param parallelism
+     * @param pool
+     * @param <V>
+     * @return
+     */
+    public static <V> Results<V> fallbackAll(List<? extends Callable<V>> tasks, Fallback.Handler<V> handler, int parallelism, ForkJoinPool pool) {
+        return run(tasks.toArray(new Callable<?>[0]), handler, Mode.COLLECT_ALL, parallelism, pool);
+    }
+
+    /**
+     * Runs all the provided {@link Callable} in parallel on the common {@link ForkJoinPool}, swallowing the {@link Exception}
+     * they throw using the {@link Swallow.Handler}. The {@link Exception} are recorded as well.
+     *
+     * @param tasks
+     * @param handler
+     * @param parallelism
+     * @param <V>
+     * @return
+     */
+    public static <V> Results<V> swallowAll(List<? extends Callable<V>> tasks, Swallow.Handler handler, int parallelism) {
+        return swallowAll(tasks, handler, parallelism, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs all the provided {@link Callable} in parallel on the given {@link ForkJoinPool}, swallowing the {@link Exception}
+     * they throw using the {@link Swallow.Handler}. The {@link Exception} are recorded as well.
+     *
+     * @param tasks
+     * @param handler
+     * @param parallelism
+     * @param pool
+     * @param <V>
+     * @return
+     */
+    public static <V> Results<V> swallowAll(List<? extends Callable<V>> tasks, Swallow.Handler handler, int parallelism, ForkJoinPool pool) {
+        return run(tasks.toArray(new Callable<?>[0]), e -> {
+            handler.handle(e);
+            return null;
+        }, Mode.COLLECT_ALL, parallelism, pool);
+    }
+
+    private static <V> Results<V> run(Callable<?>[] tasks, Fallback.Handler<?> handler, Mode mode, int parallelism, ForkJoinPool pool) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+
+        Batch batch = new Batch(tasks, handler, mode == Mode.FAIL_FAST);
+        int workers = Math.min(parallelism, tasks.length);
+        ForkJoinTask<?>[] forked = new ForkJoinTask<?>[Math.max(0, workers - 1)];
+        for (int i = 0; i < forked.length; i++) {
+            forked[i] = pool.submit(batch);
+        }
+
+        batch.run();
+        for (ForkJoinTask<?> task : forked) {
+            task.quietlyJoin();
+        }
+
+        // The worker's own exception is rethrown, ForkJoinTask#join would rethrow a copy of it.
+        Throwable failure = batch.failure.get();
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        return new Results<>(batch.values, batch.failures, batch.states);
+    }
+
+    /**
+     * {@link Batch} is the work shared by the workers, each one claims the next position until all are claimed or the batch is stopped.
+     */
+    private static final class Batch implements Runnable {
+        private final Callable<?>[] tasks;
+        private final Fallback.Handler<?> handler;
+        private final boolean failFast;
+        private final Object[] values;
+        private final Exception[] failures;
+        private final byte[] states;
+        private final AtomicInteger cursor = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile boolean stopped;
+
+        private Batch(Callable<?>[] tasks, Fallback.Handler<?> handler, boolean failFast) {
+            this.tasks = tasks;
+            this.handler = handler;
+            this.failFast = failFast;
+            this.values = new Object[tasks.length];
+            this.failures = new Exception[tasks.length];
+            this.states = new byte[tasks.length];
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i; !stopped && (i = cursor.getAndIncrement()) < tasks.length; ) {
+                    try {
+                        values[i] = tasks[i].call();
+                        states[i] = SUCCESS;
+                    } catch (Exception e) {
+                        failures[i] = e;
+                        states[i] = FAILURE;
+                        if (failFast) {
+                            stopped = true;
+                        }
+                        if (handler != null) {
+                            values[i] = handler.handle(e);
+                        }
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                stopped = true;
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+}
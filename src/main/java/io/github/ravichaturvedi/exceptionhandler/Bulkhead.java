@@ -0,0 +1,342 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Bulkhead} limits the number of threads running a code-block at once, rejecting the others to the handler
+ * with the bulkhead's {@link RejectedException} instead of letting them queue up on a slow dependency.
+ * <p>
+ * The limit is either fixed, or adapted to the observed latency (AIMD): every call completing in time increases it by 1/limit,
+ * so about one per limit's worth of calls, and every call failing or slower than the latency threshold multiplies it by the backoff ratio.
+ * <p>
+ * Permits are taken and returned with compare-and-set on a single counter, and the adaptive limit is updated the same way.
+ */
+public class Bulkhead {
+
+    /**
+     * {@link RejectedException} is handed to the handler of the calls rejected by the {@link Bulkhead}.
+     * Each bulkhead reuses one instance without stack trace, so rejecting allocates nothing.
+     */
+    public static final class RejectedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private RejectedException(String name) {
+            super("Bulkhead '" + name + "' is full", null, false, false);
+        }
+    }
+
+    private final String name;
+    private final boolean adaptive;
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final LongAdder rejected = new LongAdder();
+    final RejectedException rejectedException;
+
+    private Bulkhead(Builder builder) {
+        this.name = builder.name;
+        this.adaptive = builder.adaptive;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.latencyThresholdNanos = builder.latencyThresholdNanos;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(builder.limit));
+        this.rejectedException = new RejectedException(name);
+    }
+
+    /**
+     * Returns the {@link Builder} of a {@link Bulkhead}.
+     * @return
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the name of the {@link Bulkhead}.
+     * @return
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the current number of calls permitted at once.
+     * @return
+     */
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    /**
+     * Returns the number of calls running.
+     * @return
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the number of calls rejected.
+     * @return
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Calls the provided {@link Callable} if permitted, otherwise throws the {@link RejectedException}.
+     *
+     * @param callable
+     * @param <V>
+     * @return
+     * @throws Exception
+     */
+    public <V> V call(Callable<V> callable) throws Exception {
+        if (!acquire()) {
+            throw rejectedException;
+        }
+
+        long start = start();
+        V value;
+        try {
+            value = callable.call();
+        } catch (Throwable t) {
+            release(start, false);
+            throw t;
+        }
+        release(start, true);
+        return value;
+    }
+
+    /**
+     * Calls the provided {@link Callable} if permitted and falls back to the {@link Fallback.Handler} if it throws an {@link Exception},
+     * otherwise goes straight to the {@link Fallback.Handler} with the {@link RejectedException}.
+     *
+     * @param callable
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public <V> V fallback(Callable<V> callable, Fallback.Handler<V> handler) {
+        try {
+            return call(callable);
+        } catch (Exception e) {
+            return handler.handle(e);
+        }
+    }
+
+    /**
+     * Calls the provided {@link Callable} if permitted and falls back to the {@link Fallback.Handler} if it throws an {@link Exception},
+     * otherwise goes straight to the {@link Fallback.Handler} with the {@link RejectedException}.
+     *
+     * @param handler
+     * @param callable
+     * @param <V>
+     * @return
+     */
+    public <V> V fallback(Fallback.Handler<V> handler, Callable<V> callable) {
+        return fallback(callable, handler);
+    }
+
+    /**
+     * Calls the provided {@link Callable} if permitted, wrapping the checked {@link Exception} it throws into the {@link RuntimeException}
+     * (using {@link Wrap.Handler}), otherwise throws the {@link RuntimeException} of the {@link Wrap.Handler} for the {@link RejectedException}.
+     *
+     * @param callable
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public <V> V wrap(Callable<V> callable, Wrap.Handler handler) {
+        try {
+            return call(callable);
+        } catch (RejectedException e) {
+            throw e == rejectedException ? handler.handle(e) : e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Calls the provided {@link Callable} if permitted, wrapping the checked {@link Exception} it throws into the {@link RuntimeException}
+     * (using {@link Wrap.Handler}), otherwise throws the {@link RuntimeException} of the {@link Wrap.Handler} for the {@link RejectedException}.
+     *
+     * @param handler
+     * @param callable
+     * @param <V>
+     * @return
+     */
+    public <V> V wrap(Wrap.Handler handler, Callable<V> callable) {
+        return wrap(callable, handler);
+    }
+
+    /**
+     * Runs the provided {@link Runner} if permitted, wrapping the checked {@link Exception} it throws into the {@link RuntimeException}
+     * (using {@link Wrap.Handler}), otherwise throws the {@link RuntimeException} of the {@link Wrap.Handler} for the {@link RejectedException}.
+     *
+     * @param runner
+     * @param handler
+     */
+    public void wrap(Runner runner, Wrap.Handler handler) {
+        wrap(() -> {
+            runner.run();
+            return null;
+        }, handler);
+    }
+
+    /**
+     * Runs the provided {@link Runner} if permitted, wrapping the checked {@link Exception} it throws into the {@link RuntimeException}
+     * (using {@link Wrap.Handler}), otherwise throws the {@link RuntimeException} of the {@link Wrap.Handler} for the {@link RejectedException}.
+     *
+     * @param handler
+     * @param runner
+     */
+    public void wrap(Wrap.Handler handler, Runner runner) {
+        wrap(runner, handler);
+    }
+
+    boolean acquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit()) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    long start() {
+        return adaptive ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Gives back the permit of a call which did not run, leaving the adaptive limit as is.
+     */
+    void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    void release(long start, boolean succeeded) {
+        inFlight.decrementAndGet();
+        if (!adaptive) {
+            return;
+        }
+
+        boolean inTime = succeeded && System.nanoTime() - start <= latencyThresholdNanos;
+        for (;;) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            double next = inTime ? Math.min(maxLimit, limit + 1 / limit) : Math.max(minLimit, limit * backoffRatio);
+            if (next == limit) {
+                return;
+            }
+            if (limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@link Builder} configures the {@link Bulkhead}.
+     */
+    public static final class Builder {
+        private String name = "default";
+        private boolean adaptive;
+        private double limit = 25;
+        private double minLimit = 1;
+        private double maxLimit = 25;
+        private double backoffRatio = 0.9;
+        private long latencyThresholdNanos = Long.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the name used in the {@link RejectedException} message, defaults to "default".
+         * @param name
+         * @return
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Sets the fixed number of calls permitted at once, defaults to 25.
+         * @param maxConcurrentCalls
+         * @return
+         */
+        public Builder maxConcurrentCalls(int maxConcurrentCalls) {
+            if (maxConcurrentCalls < 1) {
+                throw new IllegalArgumentException("Limit must be positive: " + maxConcurrentCalls);
+            }
+            this.adaptive = false;
+            this.limit = maxConcurrentCalls;
+            return this;
+        }
+
+        /**
+         * Adapts the number of calls permitted at once between the given bounds, starting at the initial limit.
+         * Calls failing or slower than the latency threshold multiply it by the backoff ratio (between 0 and 1).
+         * @param initialLimit
+         * @param minLimit
+         * @param maxLimit
+         * @param latencyThreshold
+         * @param backoffRatio
+         * @return
+         */
+        public Builder adaptive(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoffRatio) {
+            if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Limits must be 1 <= min <= initial <= max: " + minLimit + ", " + initialLimit + ", " + maxLimit);
+            }
+            if (!(backoffRatio > 0 && backoffRatio < 1)) {
+                throw new IllegalArgumentException("Backoff ratio must be in (0, 1): " + backoffRatio);
+            }
+            this.adaptive = true;
+            this.limit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThresholdNanos = latencyThreshold.toNanos();
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Returns the {@link Bulkhead}.
+         * @return
+         */
+        public Bulkhead build() {
+            return new Bulkhead(this);
+        }
+    }
+}
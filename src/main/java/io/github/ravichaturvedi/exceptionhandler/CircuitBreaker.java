@@ -0,0 +1,442 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link CircuitBreaker} stops calling a failing code-block and short-circuits to the {@link Fallback.Handler} instead.
+ * <p>
+ * The breaker is closed while the failure rate and the slow call rate over the sliding window stay below their thresholds.
+ * Once one of them is reached, it opens and every call goes straight to the handler with the breaker's {@link OpenException}.
+ * After the wait in open state, it lets a few trial calls through (half-open) and closes again if they all succeed.
+ * <p>
+ * The sliding window is a ring of time buckets made of {@link LongAdder}, and the state is switched with compare-and-set only,
+ * so many threads can go through the same breaker without a global lock. The rates are computed on failures and slow calls only,
+ * the success path just bumps a striped counter.
+ */
+public class CircuitBreaker {
+
+    /**
+     * {@link State} of the {@link CircuitBreaker}.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * {@link OpenException} is handed to the handler of the calls not permitted by the {@link CircuitBreaker}.
+     * Each breaker reuses one instance without stack trace, so short-circuiting allocates nothing.
+     */
+    public static final class OpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private OpenException(String name) {
+            super("CircuitBreaker '" + name + "' is open", null, false, false);
+        }
+    }
+
+    private static final long NOT_OPENED = Long.MIN_VALUE;
+
+    private final String name;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final long bucketNanos;
+    private final Bucket[] buckets;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicLong openedAt = new AtomicLong(NOT_OPENED);
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    final OpenException openException;
+
+    private CircuitBreaker(Builder builder) {
+        this.name = builder.name;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallNanos = builder.slowCallNanos;
+        this.minimumCalls = builder.minimumCalls;
+        this.openNanos = builder.openNanos;
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.bucketNanos = Math.max(1, builder.windowNanos / builder.windowBuckets);
+        this.buckets = new Bucket[builder.windowBuckets];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.openException = new OpenException(name);
+    }
+
+    /**
+     * Returns the {@link Builder} of a {@link CircuitBreaker}.
+     * @return
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the current {@link State}, moving from open to half-open once the wait in open state is over.
+     * @return
+     */
+    public State state() {
+        State current = state.get();
+        if (current == State.OPEN && waitOver(openedAt.get(), System.nanoTime())) {
+            return State.HALF_OPEN;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the name of the {@link CircuitBreaker}.
+     * @return
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Calls the provided {@link Callable} if permitted, otherwise throws the {@link OpenException}.
+     *
+     * @param callable
+     * @param <V>
+     * @return
+     * @throws Exception
+     */
+    public <V> V call(Callable<V> callable) throws Exception {
+        State permitted = acquire();
+        if (permitted == null) {
+            throw openException;
+        }
+
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = callable.call();
+        } catch (Throwable t) {
+            onFailure(permitted, start);
+            throw t;
+        }
+        onSuccess(permitted, start);
+        return value;
+    }
+
+    /**
+     * Calls the provided {@link Callable} if permitted and falls back to the {@link Fallback.Handler} if it throws an {@link Exception},
+     * otherwise goes straight to the {@link Fallback.Handler} with the {@link OpenException}.
+     *
+     * @param callable
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public <V> V fallback(Callable<V> callable, Fallback.Handler<V> handler) {
+        State permitted = acquire();
+        if (permitted == null) {
+            return handler.handle(openException);
+        }
+
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = callable.call();
+        } catch (Exception e) {
+            onFailure(permitted, start);
+            return handler.handle(e);
+        } catch (Throwable t) {
+            onFailure(permitted, start);
+            throw t;
+        }
+        onSuccess(permitted, start);
+        return value;
+    }
+
+    /**
+     * Calls the provided {@link Callable} if permitted and falls back to the {@link Fallback.Handler} if it throws an {@link Exception},
+     * otherwise goes straight to the {@link Fallback.Handler} with the {@link OpenException}.
+     *
+     * @param handler
+     * @param callable
+     * @param <V>
+     * @return
+     */
+    public <V> V fallback(Fallback.Handler<V> handler, Callable<V> callable) {
+        return fallback(callable, handler);
+    }
+
+    State acquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return State.CLOSED;
+        }
+
+        if (current == State.OPEN) {
+            long opened = openedAt.get();
+            if (!waitOver(opened, System.nanoTime())) {
+                return null;
+            }
+            if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                openedAt.compareAndSet(opened, NOT_OPENED);
+                halfOpenSuccesses.set(0);
+                halfOpenPermits.set(halfOpenCalls - 1);
+                return State.HALF_OPEN;
+            }
+        }
+
+        for (;;) {
+            int permits = halfOpenPermits.get();
+            if (permits <= 0 || state.get() != State.HALF_OPEN) {
+                return null;
+            }
+            if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                return State.HALF_OPEN;
+            }
+        }
+    }
+
+    void onSuccess(State permitted, long start) {
+        long now = System.nanoTime();
+        boolean slow = now - start >= slowCallNanos;
+        if (permitted == State.HALF_OPEN) {
+            if (slow) {
+                open(State.HALF_OPEN, now);
+            } else if (halfOpenSuccesses.incrementAndGet() >= halfOpenCalls && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+                resetWindow();
+            }
+            return;
+        }
+
+        Bucket bucket = bucket(now);
+        bucket.calls.increment();
+        if (slow) {
+            bucket.slowCalls.increment();
+            evaluate(now);
+        }
+    }
+
+    void onFailure(State permitted, long start) {
+        long now = System.nanoTime();
+        if (permitted == State.HALF_OPEN) {
+            open(State.HALF_OPEN, now);
+            return;
+        }
+
+        Bucket bucket = bucket(now);
+        bucket.calls.increment();
+        bucket.failures.increment();
+        if (now - start >= slowCallNanos) {
+            bucket.slowCalls.increment();
+        }
+        evaluate(now);
+    }
+
+    private void evaluate(long now) {
+        long epoch = Math.floorDiv(now, bucketNanos);
+        long calls = 0;
+        long failures = 0;
+        long slowCalls = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch.get() > epoch - buckets.length) {
+                calls += bucket.calls.sum();
+                failures += bucket.failures.sum();
+                slowCalls += bucket.slowCalls.sum();
+            }
+        }
+
+        if (calls >= minimumCalls && (failures >= calls * failureRateThreshold || slowCalls >= calls * slowCallRateThreshold)) {
+            open(State.CLOSED, now);
+        }
+    }
+
+    /**
+     * Opens the {@link CircuitBreaker} if still in the given {@link State}, so the late outcomes of the calls permitted before it opened
+     * do not push the end of the wait further. The time is written once opened, until then {@link #NOT_OPENED} keeps it open,
+     * so no half-open round starts before the permits are cleared.
+     */
+    private void open(State from, long now) {
+        if (state.compareAndSet(from, State.OPEN)) {
+            // The permits left by a failed half-open round must not add up to the ones of the next round.
+            halfOpenPermits.set(0);
+            openedAt.set(now);
+        }
+    }
+
+    private boolean waitOver(long opened, long now) {
+        return opened != NOT_OPENED && now - opened >= openNanos;
+    }
+
+    private Bucket bucket(long now) {
+        long epoch = Math.floorDiv(now, bucketNanos);
+        Bucket bucket = buckets[(int) Math.floorMod(epoch, (long) buckets.length)];
+        long current = bucket.epoch.get();
+        if (current < epoch && bucket.epoch.compareAndSet(current, epoch)) {
+            bucket.reset();
+        }
+        return bucket;
+    }
+
+    private void resetWindow() {
+        for (Bucket bucket : buckets) {
+            bucket.epoch.set(Long.MIN_VALUE);
+            bucket.reset();
+        }
+    }
+
+    /**
+     * {@link Bucket} counts the calls of one slice of the sliding window, it is recycled (approximately) once the window moved past it.
+     */
+    private static final class Bucket {
+        private final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slowCalls = new LongAdder();
+
+        private void reset() {
+            calls.reset();
+            failures.reset();
+            slowCalls.reset();
+        }
+    }
+
+    /**
+     * {@link Builder} configures the {@link CircuitBreaker}.
+     */
+    public static final class Builder {
+        private String name = "default";
+        private double failureRateThreshold = 0.5;
+        private double slowCallRateThreshold = 1.0;
+        private long slowCallNanos = Long.MAX_VALUE;
+        private long windowNanos = Duration.ofSeconds(10).toNanos();
+        private int windowBuckets = 10;
+        private int minimumCalls = 20;
+        private long openNanos = Duration.ofSeconds(30).toNanos();
+        private int halfOpenCalls = 5;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the name used in the {@link OpenException} message, defaults to "default".
+         * @param name
+         * @return
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Sets the failure rate (between 0 and 1) opening the breaker, defaults to 0.5.
+         * @param failureRateThreshold
+         * @return
+         */
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = rate(failureRateThreshold);
+            return this;
+        }
+
+        /**
+         * Sets the rate of slow calls (between 0 and 1) opening the breaker, defaults to 1.
+         * @param slowCallRateThreshold
+         * @return
+         */
+        public Builder slowCallRateThreshold(double slowCallRateThreshold) {
+            this.slowCallRateThreshold = rate(slowCallRateThreshold);
+            return this;
+        }
+
+        /**
+         * Sets the duration from which a call is slow, by default no call is slow.
+         * @param slowCallDuration
+         * @return
+         */
+        public Builder slowCallDuration(Duration slowCallDuration) {
+            this.slowCallNanos = slowCallDuration.toNanos();
+            return this;
+        }
+
+        /**
+         * Sets the length of the sliding window and the number of buckets it is made of, defaults to 10 seconds in 10 buckets.
+         * @param window
+         * @param buckets
+         * @return
+         */
+        public Builder slidingWindow(Duration window, int buckets) {
+            if (buckets < 1) {
+                throw new IllegalArgumentException("Buckets must be positive: " + buckets);
+            }
+            this.windowNanos = window.toNanos();
+            this.windowBuckets = buckets;
+            return this;
+        }
+
+        /**
+         * Sets the number of calls in the sliding window before the rates are considered, defaults to 20.
+         * @param minimumCalls
+         * @return
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            this.minimumCalls = Math.max(1, minimumCalls);
+            return this;
+        }
+
+        /**
+         * Sets how long the breaker stays open before letting trial calls through, defaults to 30 seconds.
+         * @param waitInOpenState
+         * @return
+         */
+        public Builder waitInOpenState(Duration waitInOpenState) {
+            this.openNanos = waitInOpenState.toNanos();
+            return this;
+        }
+
+        /**
+         * Sets the number of trial calls in half-open state, all of them must succeed to close the breaker, defaults to 5.
+         * @param halfOpenCalls
+         * @return
+         */
+        public Builder permittedCallsInHalfOpenState(int halfOpenCalls) {
+            this.halfOpenCalls = Math.max(1, halfOpenCalls);
+            return this;
+        }
+
+        /**
+         * Returns the {@link CircuitBreaker}.
+         * @return
+         */
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+
+        private static double rate(double rate) {
+            if (!(rate > 0 && rate <= 1)) {
+                throw new IllegalArgumentException("Rate must be in (0, 1]: " + rate);
+            }
+            return rate;
+        }
+    }
+}
@@ -16,10 +16,11 @@
 package io.github.ravichaturvedi.exceptionhandler;
 
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.function.Consumer;
-
-import static io.github.ravichaturvedi.exceptionhandler.Callables.from;
+import java.util.function.Function;
 
 /**
  * {@link Cleanup} provides static functions to deal with cleaning up the {@link Exception}, in case provided code-block throws an {@link Exception}.
@@ -28,10 +29,89 @@ public class Cleanup {
 
     /**
      * {@link Handler} defines the handler for the cleanup function.
+     * Handlers are immutable, so they can be created once and reused by every call (e.g. kept in a static final field).
      */
     @FunctionalInterface
-    private interface Handler {
+    public interface Handler {
         void handle(Exception e);
+
+        /**
+         * Returns whether this {@link Handler} handles the given {@link Exception}, others fall through in {@link #orElse(Handler)}.
+         * @param e
+         * @return
+         */
+        default boolean handles(Exception e) {
+            return true;
+        }
+
+        /**
+         * Returns the {@link Handler} falling through to the next {@link Handler} for the {@link Exception} not handled by this one.
+         * @param next
+         * @return
+         */
+        default Handler orElse(Handler next) {
+            Handler first = this;
+            return new Handler() {
+                @Override
+                public void handle(Exception e) {
+                    if (first.handles(e)) {
+                        first.handle(e);
+                    } else {
+                        next.handle(e);
+                    }
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return first.handles(e) || next.handles(e);
+                }
+            };
+        }
+
+        /**
+         * Returns the {@link Handler} running this and then the next {@link Handler}, each one for the {@link Exception} it handles.
+         * @param next
+         * @return
+         */
+        default Handler andThen(Handler next) {
+            Handler first = this;
+            return new Handler() {
+                @Override
+                public void handle(Exception e) {
+                    if (first.handles(e)) {
+                        first.handle(e);
+                    }
+                    if (next.handles(e)) {
+                        next.handle(e);
+                    }
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return first.handles(e) || next.handles(e);
+                }
+            };
+        }
+
+        /**
+         * Returns the {@link Handler} mapping the {@link Exception} with the given {@link Function} before handling it.
+         * @param mapper
+         * @return
+         */
+        default Handler mapping(Function<? super Exception, ? extends Exception> mapper) {
+            Handler handler = this;
+            return new Handler() {
+                @Override
+                public void handle(Exception e) {
+                    handler.handle(mapper.apply(e));
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return handler.handles(mapper.apply(e));
+                }
+            };
+        }
     }
 
     /**
@@ -43,6 +123,30 @@ public class Cleanup {
         return exceptionConsumer::accept;
     }
 
+    /**
+     * Returns the {@link Handler} for the given {@link Consumer}, handling only the {@link Exception} of the given type.
+     * Other {@link Exception} are ignored, unless an {@link Handler#orElse(Handler)} handles them.
+     * @param type
+     * @param exceptionConsumer
+     * @param <E>
+     * @return
+     */
+    public static <E extends Exception> Handler with(Class<E> type, Consumer<? super E> exceptionConsumer) {
+        return new Handler() {
+            @Override
+            public void handle(Exception e) {
+                if (type.isInstance(e)) {
+                    exceptionConsumer.accept(type.cast(e));
+                }
+            }
+
+            @Override
+            public boolean handles(Exception e) {
+                return type.isInstance(e);
+            }
+        };
+    }
+
     /**
      * Cleanup the {@link Exception} thrown by the provided {@link Runner}, with the given {@link Handler}.
      *
@@ -50,7 +154,13 @@ public class Cleanup {
      * @param handler
      */
     public static void cleanup(Runner runner, Handler handler) {
-        cleanup(from(runner), handler);
+        long start = Events.start();
+        try {
+            runner.run();
+        } catch (Exception e) {
+            Events.handled(Events.CLEANUP, runner, e, start);
+            handler.handle(e);
+        }
     }
 
     /**
@@ -70,9 +180,11 @@ public class Cleanup {
      * @param handler
      */
     public static void cleanup(Callable<?> callable, Handler handler) {
+        long start = Events.start();
         try {
             callable.call();
         } catch (Exception e) {
+            Events.handled(Events.CLEANUP, callable, e, start);
             handler.handle(e);
         }
     }
@@ -86,4 +198,107 @@ public class Cleanup {
     public static void cleanup(Handler handler, Callable<?> callable) {
         cleanup(callable, handler);
     }
+
+    /**
+     * Returns the {@link CleanupScope} releasing everything registered into it when closed, confined to the calling thread.
+     * @return
+     */
+    public static CleanupScope scope() {
+        return new CleanupScope(null);
+    }
+
+    /**
+     * Returns the {@link CleanupScope} releasing everything registered into it when closed, confined to the calling thread,
+     * handing the {@link Exception} thrown while releasing to the {@link Handler} rather than throwing it.
+     * @param handler
+     * @return
+     */
+    public static CleanupScope scope(Handler handler) {
+        return new CleanupScope(handler);
+    }
+
+    /**
+     * Returns the {@link CleanupScope} releasing everything registered into it when closed, which can be shared by several threads.
+     * @return
+     */
+    public static CleanupScope sharedScope() {
+        return new CleanupScope.Shared(null);
+    }
+
+    /**
+     * Returns the {@link CleanupScope} releasing everything registered into it when closed, which can be shared by several threads,
+     * handing the {@link Exception} thrown while releasing to the {@link Handler} rather than throwing it.
+     * @param handler
+     * @return
+     */
+    public static CleanupScope sharedScope(Handler handler) {
+        return new CleanupScope.Shared(handler);
+    }
+
+    /**
+     * Returns the {@link DispatchBuilder} for a {@link Handler} selecting the exception consumer by the type of the {@link Exception}.
+     * @return
+     */
+    public static DispatchBuilder dispatch() {
+        return new DispatchBuilder();
+    }
+
+    /**
+     * {@link DispatchBuilder} builds the {@link Handler} running the exception consumer registered for the most specific supertype of the {@link Exception}.
+     * The match is resolved once per concrete {@link Exception} class, so dispatching costs a single lookup whatever the number of rules.
+     */
+    public static final class DispatchBuilder {
+        private final Map<Class<? extends Exception>, Handler> rules = new LinkedHashMap<>();
+        private Handler otherwise;
+
+        private DispatchBuilder() {
+        }
+
+        /**
+         * Registers the exception consumer for the given type (and its subtypes), replacing any previous one for the same type.
+         * @param type
+         * @param exceptionConsumer
+         * @param <E>
+         * @return
+         */
+        public <E extends Exception> DispatchBuilder on(Class<E> type, Consumer<? super E> exceptionConsumer) {
+            rules.put(type, e -> exceptionConsumer.accept(type.cast(e)));
+            return this;
+        }
+
+        /**
+         * Sets the {@link Handler} for the {@link Exception} matching no type, which are otherwise ignored.
+         * @param handler
+         * @return
+         */
+        public DispatchBuilder otherwise(Handler handler) {
+            this.otherwise = handler;
+            return this;
+        }
+
+        /**
+         * Returns the immutable {@link Handler}.
+         * @return
+         */
+        public Handler build() {
+            ExceptionTable<Handler> table = new ExceptionTable<>(rules);
+            Handler fallThrough = otherwise;
+            return new Handler() {
+                @Override
+                public void handle(Exception e) {
+                    Handler handler = table.get(e);
+                    if (handler != null) {
+                        handler.handle(e);
+                    } else if (fallThrough != null) {
+                        fallThrough.handle(e);
+                    }
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return table.get(e) != null || (fallThrough != null && fallThrough.handles(e));
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.util.Arrays;
+
+/**
+ * {@link CleanupScope} releases the resources and runs the cleanup actions registered into it, in the reverse order of their registration,
+ * when it is closed (e.g. at the end of a try-with-resources block, whether the block succeeded or failed).
+ * <p>
+ * The registrations are kept as is on an array-backed stack, so registering costs an array store.
+ * Every resource is released even if others fail: the first {@link Exception} is handed to the {@link Cleanup.Handler}
+ * with the next ones added as suppressed, or thrown without one, the checked {@link Exception} wrapped as {@link Wrap} does.
+ * An {@link Error} is thrown once everything is released.
+ * <p>
+ * The {@link CleanupScope} of {@link Cleanup#scope()} is confined to one thread, the one of {@link Cleanup#sharedScope()}
+ * can be registered into by the worker threads of a parallel task.
+ */
+public class CleanupScope implements AutoCloseable {
+
+    private final Cleanup.Handler handler;
+    private Object[] stack = new Object[8];
+    private int size;
+    private boolean closed;
+
+    CleanupScope(Cleanup.Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Registers the resource to be closed with this {@link CleanupScope}, and returns it.
+     * The resource registered into a closed {@link CleanupScope} is closed right away and {@link IllegalStateException} is thrown.
+     *
+     * @param resource
+     * @param <R>
+     * @return
+     */
+    public <R extends AutoCloseable> R register(R resource) {
+        push(resource);
+        return resource;
+    }
+
+    /**
+     * Registers the cleanup action to run when this {@link CleanupScope} is closed.
+     * The action registered into a closed {@link CleanupScope} is run right away and {@link IllegalStateException} is thrown.
+     *
+     * @param action
+     */
+    public void onClose(Runner action) {
+        push(action instanceof AutoCloseable ? (AutoCloseable) action::run : action);
+    }
+
+    /**
+     * Returns the number of resources and cleanup actions waiting to be released.
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Releases the resources and runs the cleanup actions in the reverse order of their registration, once.
+     *
+     * @throws RuntimeException the first {@link Exception} released (wrapped if checked), with the next ones suppressed,
+     *                          unless there is a {@link Cleanup.Handler}
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        Throwable failure = null;
+        for (int i = size - 1; i >= 0; i--) {
+            Object resource = stack[i];
+            stack[i] = null;
+            try {
+                release(resource);
+            } catch (Throwable t) {
+                failure = merge(failure, t);
+            }
+        }
+        size = 0;
+        stack = null;
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            if (handler == null) {
+                throw Wrap.unchecked((Exception) failure);
+            }
+            handler.handle((Exception) failure);
+        }
+    }
+
+    void push(Object resource) {
+        if (resource == null) {
+            throw new NullPointerException("resource");
+        }
+        if (closed) {
+            IllegalStateException e = new IllegalStateException("CleanupScope is closed");
+            try {
+                release(resource);
+            } catch (Throwable t) {
+                e.addSuppressed(t);
+            }
+            throw e;
+        }
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+        }
+        stack[size++] = resource;
+    }
+
+    private static void release(Object resource) throws Exception {
+        if (resource instanceof AutoCloseable) {
+            ((AutoCloseable) resource).close();
+        } else {
+            ((Runner) resource).run();
+        }
+    }
+
+    private static Throwable merge(Throwable failure, Throwable t) {
+        if (failure == null) {
+            return t;
+        }
+        if (t instanceof Error && !(failure instanceof Error)) {
+            t.addSuppressed(failure);
+            return t;
+        }
+        failure.addSuppressed(t);
+        return failure;
+    }
+
+    /**
+     * {@link Shared} is the {@link CleanupScope} whose registrations and closing are serialized on its monitor.
+     */
+    static final class Shared extends CleanupScope {
+
+        Shared(Cleanup.Handler handler) {
+            super(handler);
+        }
+
+        @Override
+        synchronized void push(Object resource) {
+            super.push(resource);
+        }
+
+        @Override
+        public synchronized int size() {
+            return super.size();
+        }
+
+        @Override
+        public synchronized void close() {
+            super.close();
+        }
+    }
+}
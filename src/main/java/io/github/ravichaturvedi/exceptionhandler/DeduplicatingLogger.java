@@ -0,0 +1,262 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link DeduplicatingLogger} is a {@link Swallow.ExceptionLogger} logging the same failure, as told by its {@link Fingerprint},
+ * at a limited rate. The first occurrence is logged in full, then each {@link Fingerprint} has its own token bucket
+ * and the occurrences beyond it are counted and reported by the {@link SummaryLogger} at most once per summary interval.
+ * <p>
+ * The {@link Fingerprint} are kept in a bounded table of sets of 4 slots: a new {@link Fingerprint} takes a free slot
+ * of its set, or evicts the least recently seen {@link Fingerprint} of the set, reporting its pending count first.
+ * So a few failures hashing to the same set don't keep evicting each other. A summary is emitted when an occurrence comes in, not by a background thread:
+ * the count of a failure which stops occurring is only reported by {@link #flush()}.
+ */
+public class DeduplicatingLogger implements Swallow.ExceptionLogger {
+
+    /**
+     * {@link SummaryLogger} reports the number of occurrences of a failure which were not logged.
+     */
+    @FunctionalInterface
+    public interface SummaryLogger {
+        void log(Exception latest, long suppressed);
+    }
+
+    /**
+     * Number of slots per set of the table.
+     */
+    private static final int WAYS = 4;
+
+    private final Swallow.ExceptionLogger logger;
+    private final SummaryLogger summaryLogger;
+    private final int frames;
+    private final int burst;
+    private final double logsPerSecond;
+    private final long summaryNanos;
+    private final AtomicReferenceArray<Entry> entries;
+    private final int ways;
+    private final int setMask;
+
+    private DeduplicatingLogger(Builder builder) {
+        this.logger = builder.logger;
+        this.summaryLogger = builder.summaryLogger;
+        this.frames = builder.frames;
+        this.burst = builder.burst;
+        this.logsPerSecond = builder.logsPerSecond;
+        this.summaryNanos = builder.summaryNanos;
+        int size = builder.tableSize == 1 ? 1 : Integer.highestOneBit(builder.tableSize - 1) << 1;
+        this.entries = new AtomicReferenceArray<>(size);
+        this.ways = Math.min(WAYS, size);
+        this.setMask = size / ways - 1;
+    }
+
+    /**
+     * Returns the {@link Builder} of a {@link DeduplicatingLogger} logging to the given {@link Swallow.ExceptionLogger},
+     * and reporting the suppressed occurrences to the given {@link SummaryLogger}.
+     * @param logger
+     * @param summaryLogger
+     * @return
+     */
+    public static Builder builder(Swallow.ExceptionLogger logger, SummaryLogger summaryLogger) {
+        return new Builder(logger, summaryLogger);
+    }
+
+    @Override
+    public void log(Exception e) {
+        long fingerprint = Fingerprint.of(e, frames);
+        int set = ((int) (fingerprint ^ (fingerprint >>> 32)) & setMask) * ways;
+        long now = System.nanoTime();
+        Entry entry = lookup(set, fingerprint);
+        if (entry == null) {
+            int victim = victim(set);
+            Entry evicted = entries.get(victim);
+            Entry created = new Entry(fingerprint, Retry.Budget.of(burst, logsPerSecond), now);
+            if (entries.compareAndSet(victim, evicted, created)) {
+                if (evicted != null) {
+                    flush(evicted);
+                }
+                created.budget.tryAcquire();
+                logger.log(e);
+                return;
+            }
+            entry = lookup(set, fingerprint);
+            if (entry == null) {
+                // Lost the slot to another fingerprint, the occurrence is logged rather than lost.
+                logger.log(e);
+                return;
+            }
+        }
+
+        entry.lastSeen = now;
+        if (entry.budget.tryAcquire()) {
+            logger.log(e);
+            return;
+        }
+        entry.latest = e;
+        entry.suppressed.incrementAndGet();
+        long last = entry.lastSummary.get();
+        if (now - last >= summaryNanos && entry.lastSummary.compareAndSet(last, now)) {
+            flush(entry);
+        }
+    }
+
+    /**
+     * Reports the pending count of every tracked failure to the {@link SummaryLogger}, without waiting for their next occurrence.
+     * It is meant to be called by a scheduler, or by a shutdown hook so the last counts are not lost.
+     */
+    public void flush() {
+        for (int i = 0; i < entries.length(); i++) {
+            Entry entry = entries.get(i);
+            if (entry != null) {
+                flush(entry);
+            }
+        }
+    }
+
+    private Entry lookup(int set, long fingerprint) {
+        for (int i = set; i < set + ways; i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.fingerprint == fingerprint) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the free slot of the set, or of the least recently seen {@link Entry}.
+     */
+    private int victim(int set) {
+        int victim = set;
+        Entry oldest = null;
+        for (int i = set; i < set + ways; i++) {
+            Entry entry = entries.get(i);
+            if (entry == null) {
+                return i;
+            }
+            if (oldest == null || entry.lastSeen - oldest.lastSeen < 0) {
+                victim = i;
+                oldest = entry;
+            }
+        }
+        return victim;
+    }
+
+    private void flush(Entry entry) {
+        long suppressed = entry.suppressed.getAndSet(0);
+        if (suppressed > 0) {
+            summaryLogger.log(entry.latest, suppressed);
+        }
+    }
+
+    private static final class Entry {
+        private final long fingerprint;
+        private final Retry.Budget budget;
+        private final AtomicLong suppressed = new AtomicLong();
+        private final AtomicLong lastSummary = new AtomicLong(System.nanoTime());
+        private volatile Exception latest;
+        private volatile long lastSeen;
+
+        private Entry(long fingerprint, Retry.Budget budget, long now) {
+            this.fingerprint = fingerprint;
+            this.budget = budget;
+            this.lastSeen = now;
+        }
+    }
+
+    /**
+     * {@link Builder} configures the {@link DeduplicatingLogger}.
+     */
+    public static final class Builder {
+        private final Swallow.ExceptionLogger logger;
+        private final SummaryLogger summaryLogger;
+        private int frames = Fingerprint.DEFAULT_FRAMES;
+        private int burst = 1;
+        private double logsPerSecond = 1.0 / 60;
+        private long summaryNanos = Duration.ofSeconds(10).toNanos();
+        private int tableSize = 256;
+
+        private Builder(Swallow.ExceptionLogger logger, SummaryLogger summaryLogger) {
+            this.logger = logger;
+            this.summaryLogger = summaryLogger;
+        }
+
+        /**
+         * Sets the number of stack trace frames in the {@link Fingerprint}, defaults to {@link Fingerprint#DEFAULT_FRAMES}.
+         * @param frames
+         * @return
+         */
+        public Builder frames(int frames) {
+            this.frames = Math.max(0, frames);
+            return this;
+        }
+
+        /**
+         * Sets how many occurrences of a failure are logged in full in a burst and then per second, defaults to 1 then 1 per minute.
+         * @param burst
+         * @param logsPerSecond
+         * @return
+         */
+        public Builder rate(int burst, double logsPerSecond) {
+            if (burst < 1) {
+                throw new IllegalArgumentException("Burst must be positive: " + burst);
+            }
+            if (!(logsPerSecond > 0)) {
+                throw new IllegalArgumentException("Rate must be positive: " + logsPerSecond);
+            }
+            this.burst = burst;
+            this.logsPerSecond = logsPerSecond;
+            return this;
+        }
+
+        /**
+         * Sets the minimum duration between two summaries of a failure, defaults to 10 seconds.
+         * @param summaryInterval
+         * @return
+         */
+        public Builder summaryInterval(Duration summaryInterval) {
+            this.summaryNanos = summaryInterval.toNanos();
+            return this;
+        }
+
+        /**
+         * Sets the number of failures tracked at once, rounded up to a power of two, defaults to 256.
+         * The table is split into sets of 4 slots, or one set if smaller.
+         * @param tableSize
+         * @return
+         */
+        public Builder tableSize(int tableSize) {
+            if (tableSize < 1 || tableSize > 1 << 30) {
+                throw new IllegalArgumentException("Table size must be in [1, 2^30]: " + tableSize);
+            }
+            this.tableSize = tableSize;
+            return this;
+        }
+
+        /**
+         * Returns the {@link DeduplicatingLogger}.
+         * @return
+         */
+        public DeduplicatingLogger build() {
+            return new DeduplicatingLogger(this);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+/**
+ * {@link Events} reports the {@link Exception} handled by {@link Wrap}, {@link Fallback}, {@link Swallow} and {@link Cleanup}
+ * as Java Flight Recorder events, on the JVMs providing jdk.jfr (the {@link Sink} is compiled for Java 11 and loaded reflectively).
+ * <p>
+ * The guarded code-block is only timed while a recording enables the event, otherwise {@link #start()} returns {@link #NOT_RECORDING}
+ * and nothing else is done, on Java 8 the JIT reduces both calls to nothing.
+ */
+final class Events {
+
+    static final long NOT_RECORDING = Long.MIN_VALUE;
+
+    static final String WRAP = "wrap";
+    static final String FALLBACK = "fallback";
+    static final String SWALLOW = "swallow";
+    static final String CLEANUP = "cleanup";
+
+    /**
+     * {@link Sink} emits the events.
+     */
+    interface Sink {
+        long start();
+
+        void handled(String operation, Object block, Exception e, long start);
+    }
+
+    private static final Sink SINK = load();
+
+    private Events() {
+    }
+
+    /**
+     * Returns the start time of the guarded code-block, {@link #NOT_RECORDING} if the event is not enabled.
+     * @return
+     */
+    static long start() {
+        return SINK.start();
+    }
+
+    /**
+     * Reports the {@link Exception} thrown by the code-block started at the given time and handled by the given operation.
+     * @param operation
+     * @param block
+     * @param e
+     * @param start
+     */
+    static void handled(String operation, Object block, Exception e, long start) {
+        if (start != NOT_RECORDING) {
+            SINK.handled(operation, block, e, start);
+        }
+    }
+
+    private static Sink load() {
+        try {
+            return (Sink) Class.forName("io.github.ravichaturvedi.exceptionhandler.JfrEvents").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return new Sink() {
+                @Override
+                public long start() {
+                    return NOT_RECORDING;
+                }
+
+                @Override
+                public void handled(String operation, Object block, Exception e, long start) {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link ExceptionTable} maps {@link Exception} types to handlers, resolving the most specific registered supertype of a concrete
+ * {@link Exception} class once and caching it in a {@link ClassValue}, so later lookups cost the same whatever the number of rules.
+ *
+ * @param <H>
+ */
+final class ExceptionTable<H> {
+
+    private static final Object NONE = new Object();
+
+    private final Map<Class<?>, H> rules;
+
+    private final ClassValue<Object> resolved = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                H handler = rules.get(c);
+                if (handler != null) {
+                    return handler;
+                }
+            }
+            return NONE;
+        }
+    };
+
+    ExceptionTable(Map<Class<? extends Exception>, H> rules) {
+        this.rules = new HashMap<>(rules);
+    }
+
+    /**
+     * Returns the handler registered for the most specific supertype of the given {@link Exception}, or null if there is none.
+     * @param e
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    H get(Exception e) {
+        Object handler = resolved.get(e.getClass());
+        return handler == NONE ? null : (H) handler;
+    }
+}
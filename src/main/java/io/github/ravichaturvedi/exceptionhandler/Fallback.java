@@ -15,9 +15,19 @@
  */
 package io.github.ravichaturvedi.exceptionhandler;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
 import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 
 /**
@@ -27,11 +37,61 @@ public class Fallback {
 
     /**
      * {@link Handler} defines the handler for the fallback function.
+     * Handlers are immutable, so they can be created once and reused by every call (e.g. kept in a static final field).
      * @param <V>
      */
     @FunctionalInterface
-    private interface Handler<V> {
+    public interface Handler<V> {
         V handle(Exception e);
+
+        /**
+         * Returns whether this {@link Handler} handles the given {@link Exception}, others fall through in {@link #orElse(Handler)}.
+         * @param e
+         * @return
+         */
+        default boolean handles(Exception e) {
+            return true;
+        }
+
+        /**
+         * Returns the {@link Handler} falling through to the next {@link Handler} for the {@link Exception} not handled by this one.
+         * @param next
+         * @return
+         */
+        default Handler<V> orElse(Handler<V> next) {
+            Handler<V> first = this;
+            return new Handler<V>() {
+                @Override
+                public V handle(Exception e) {
+                    return first.handles(e) ? first.handle(e) : next.handle(e);
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return first.handles(e) || next.handles(e);
+                }
+            };
+        }
+
+        /**
+         * Returns the {@link Handler} mapping the {@link Exception} with the given {@link Function} before handling it.
+         * @param mapper
+         * @return
+         */
+        default Handler<V> mapping(Function<? super Exception, ? extends Exception> mapper) {
+            Handler<V> handler = this;
+            return new Handler<V>() {
+                @Override
+                public V handle(Exception e) {
+                    return handler.handle(mapper.apply(e));
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return handler.handles(mapper.apply(e));
+                }
+            };
+        }
     }
 
     /**
@@ -44,12 +104,94 @@ public class Fallback {
     }
 
     /**
-     * {@link Handler} defines the handler for the fallback function, which can throw {@link Exception}.
+     * {@link TryHandler} defines the handler for the fallback function, which can throw {@link Exception}.
+     * Handlers are immutable, so they can be created once and reused by every call (e.g. kept in a static final field).
      * @param <V>
      */
     @FunctionalInterface
-    private interface TryHandler<V> {
+    public interface TryHandler<V> {
         V tryHandle(Exception e) throws Exception;
+
+        /**
+         * Returns whether this {@link TryHandler} handles the given {@link Exception}, others fall through in {@link #orElse(TryHandler)}.
+         * @param e
+         * @return
+         */
+        default boolean handles(Exception e) {
+            return true;
+        }
+
+        /**
+         * Returns the {@link TryHandler} falling through to the next {@link TryHandler} for the {@link Exception} not handled by this one.
+         * @param next
+         * @return
+         */
+        default TryHandler<V> orElse(TryHandler<V> next) {
+            TryHandler<V> first = this;
+            return new TryHandler<V>() {
+                @Override
+                public V tryHandle(Exception e) throws Exception {
+                    return first.handles(e) ? first.tryHandle(e) : next.tryHandle(e);
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return first.handles(e) || next.handles(e);
+                }
+            };
+        }
+
+        /**
+         * Returns the {@link TryHandler} mapping the {@link Exception} with the given {@link Function} before handling it.
+         * @param mapper
+         * @return
+         */
+        default TryHandler<V> mapping(Function<? super Exception, ? extends Exception> mapper) {
+            TryHandler<V> handler = this;
+            return new TryHandler<V>() {
+                @Override
+                public V tryHandle(Exception e) throws Exception {
+                    return handler.tryHandle(mapper.apply(e));
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return handler.handles(mapper.apply(e));
+                }
+            };
+        }
+    }
+
+    /**
+     * {@link IntHandler} defines the handler for the int fallback function.
+     */
+    @FunctionalInterface
+    public interface IntHandler {
+        int handle(Exception e);
+    }
+
+    /**
+     * {@link LongHandler} defines the handler for the long fallback function.
+     */
+    @FunctionalInterface
+    public interface LongHandler {
+        long handle(Exception e);
+    }
+
+    /**
+     * {@link DoubleHandler} defines the handler for the double fallback function.
+     */
+    @FunctionalInterface
+    public interface DoubleHandler {
+        double handle(Exception e);
+    }
+
+    /**
+     * {@link BooleanHandler} defines the handler for the boolean fallback function.
+     */
+    @FunctionalInterface
+    public interface BooleanHandler {
+        boolean handle(Exception e);
     }
 
     /**
@@ -83,6 +225,32 @@ public class Fallback {
         return fallbackFunc::apply;
     }
 
+    /**
+     * Returns back the {@link Handler} using the given {@link Function}, handling only the {@link Exception} of the given type.
+     * Other {@link Exception} are rethrown wrapped into {@link RuntimeException} (if checked), unless an {@link Handler#orElse(Handler)} handles them.
+     * @param type
+     * @param fallbackFunc
+     * @param <E>
+     * @param <V>
+     * @return
+     */
+    public static <E extends Exception, V> Handler<V> to(Class<E> type, Function<? super E, ? extends V> fallbackFunc) {
+        return new Handler<V>() {
+            @Override
+            public V handle(Exception e) {
+                if (type.isInstance(e)) {
+                    return fallbackFunc.apply(type.cast(e));
+                }
+                throw Wrap.unchecked(e);
+            }
+
+            @Override
+            public boolean handles(Exception e) {
+                return type.isInstance(e);
+            }
+        };
+    }
+
     /**
      * Returns back the {@link TryHandler} using the given {@link Func}.
      * @param func
@@ -93,6 +261,31 @@ public class Fallback {
         return func::apply;
     }
 
+    /**
+     * Returns back the {@link TryHandler} using the given {@link Func}, handling only the {@link Exception} of the given type.
+     * Other {@link Exception} are rethrown as is, unless an {@link TryHandler#orElse(TryHandler)} handles them.
+     * @param type
+     * @param func
+     * @param <V>
+     * @return
+     */
+    public static <V> TryHandler<V> toFunc(Class<? extends Exception> type, Func<V> func) {
+        return new TryHandler<V>() {
+            @Override
+            public V tryHandle(Exception e) throws Exception {
+                if (type.isInstance(e)) {
+                    return func.apply(e);
+                }
+                throw e;
+            }
+
+            @Override
+            public boolean handles(Exception e) {
+                return type.isInstance(e);
+            }
+        };
+    }
+
     /**
      * Fallback to the {@link Handler}, if provided {@link Callable} throws an {@link Exception}.
      * @param callable
@@ -101,9 +294,11 @@ public class Fallback {
      * @return
      */
     public static <V> V fallback(Callable<V> callable, Handler<V> handler) {
+        long start = Events.start();
         try {
             return callable.call();
         } catch (Exception e) {
+            Events.handled(Events.FALLBACK, callable, e, start);
             return handler.handle(e);
         }
     }
@@ -116,9 +311,11 @@ public class Fallback {
      * @return
      */
     public static <V> V fallback(Callable<V> callable, TryHandler<V> tryHandler) throws Exception {
+        long start = Events.start();
         try {
             return callable.call();
         } catch (Exception e) {
+            Events.handled(Events.FALLBACK, callable, e, start);
             return tryHandler.tryHandle(e);
         }
     }
@@ -144,4 +341,306 @@ public class Fallback {
     public static <V> V fallback(TryHandler<V> tryHandler, Callable<V> callable) throws Exception {
         return fallback(callable, tryHandler);
     }
+
+    /**
+     * Returns back the {@link IntHandler} using the provided value.
+     *
+     * @param value
+     * @return
+     */
+    public static IntHandler toInt(int value) {
+        return e -> value;
+    }
+
+    /**
+     * Returns back the {@link IntHandler} using the provided value {@link IntSupplier}.
+     * @param valueSupplier
+     * @return
+     */
+    public static IntHandler toInt(IntSupplier valueSupplier) {
+        return e -> valueSupplier.getAsInt();
+    }
+
+    /**
+     * Returns back the {@link IntHandler} using the given {@link ToIntFunction}.
+     * @param fallbackFunc
+     * @return
+     */
+    public static IntHandler toInt(ToIntFunction<Exception> fallbackFunc) {
+        return fallbackFunc::applyAsInt;
+    }
+
+    /**
+     * Fallback to the {@link IntHandler}, if provided {@link IntCallable} throws an {@link Exception}.
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static int fallbackInt(IntCallable callable, IntHandler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            Events.handled(Events.FALLBACK, callable, e, start);
+            return handler.handle(e);
+        }
+    }
+
+    /**
+     * Fallback to the {@link IntHandler}, if provided {@link IntCallable} throws an {@link Exception}.
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static int fallbackInt(IntHandler handler, IntCallable callable) {
+        return fallbackInt(callable, handler);
+    }
+
+    /**
+     * Returns back the {@link LongHandler} using the provided value.
+     *
+     * @param value
+     * @return
+     */
+    public static LongHandler toLong(long value) {
+        return e -> value;
+    }
+
+    /**
+     * Returns back the {@link LongHandler} using the provided value {@link LongSupplier}.
+     * @param valueSupplier
+     * @return
+     */
+    public static LongHandler toLong(LongSupplier valueSupplier) {
+        return e -> valueSupplier.getAsLong();
+    }
+
+    /**
+     * Returns back the {@link LongHandler} using the given {@link ToLongFunction}.
+     * @param fallbackFunc
+     * @return
+     */
+    public static LongHandler toLong(ToLongFunction<Exception> fallbackFunc) {
+        return fallbackFunc::applyAsLong;
+    }
+
+    /**
+     * Fallback to the {@link LongHandler}, if provided {@link LongCallable} throws an {@link Exception}.
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static long fallbackLong(LongCallable callable, LongHandler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            Events.handled(Events.FALLBACK, callable, e, start);
+            return handler.handle(e);
+        }
+    }
+
+    /**
+     * Fallback to the {@link LongHandler}, if provided {@link LongCallable} throws an {@link Exception}.
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static long fallbackLong(LongHandler handler, LongCallable callable) {
+        return fallbackLong(callable, handler);
+    }
+
+    /**
+     * Returns back the {@link DoubleHandler} using the provided value.
+     *
+     * @param value
+     * @return
+     */
+    public static DoubleHandler toDouble(double value) {
+        return e -> value;
+    }
+
+    /**
+     * Returns back the {@link DoubleHandler} using the provided value {@link DoubleSupplier}.
+     * @param valueSupplier
+     * @return
+     */
+    public static DoubleHandler toDouble(DoubleSupplier valueSupplier) {
+        return e -> valueSupplier.getAsDouble();
+    }
+
+    /**
+     * Returns back the {@link DoubleHandler} using the given {@link ToDoubleFunction}.
+     * @param fallbackFunc
+     * @return
+     */
+    public static DoubleHandler toDouble(ToDoubleFunction<Exception> fallbackFunc) {
+        return fallbackFunc::applyAsDouble;
+    }
+
+    /**
+     * Fallback to the {@link DoubleHandler}, if provided {@link DoubleCallable} throws an {@link Exception}.
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static double fallbackDouble(DoubleCallable callable, DoubleHandler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            Events.handled(Events.FALLBACK, callable, e, start);
+            return handler.handle(e);
+        }
+    }
+
+    /**
+     * Fallback to the {@link DoubleHandler}, if provided {@link DoubleCallable} throws an {@link Exception}.
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static double fallbackDouble(DoubleHandler handler, DoubleCallable callable) {
+        return fallbackDouble(callable, handler);
+    }
+
+    /**
+     * Returns back the {@link BooleanHandler} using the provided value.
+     *
+     * @param value
+     * @return
+     */
+    public static BooleanHandler toBoolean(boolean value) {
+        return e -> value;
+    }
+
+    /**
+     * Returns back the {@link BooleanHandler} using the provided value {@link BooleanSupplier}.
+     * @param valueSupplier
+     * @return
+     */
+    public static BooleanHandler toBoolean(BooleanSupplier valueSupplier) {
+        return e -> valueSupplier.getAsBoolean();
+    }
+
+    /**
+     * Returns back the {@link BooleanHandler} using the given {@link Predicate}.
+     * @param fallbackFunc
+     * @return
+     */
+    public static BooleanHandler toBoolean(Predicate<Exception> fallbackFunc) {
+        return fallbackFunc::test;
+    }
+
+    /**
+     * Fallback to the {@link BooleanHandler}, if provided {@link BooleanCallable} throws an {@link Exception}.
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static boolean fallbackBoolean(BooleanCallable callable, BooleanHandler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            Events.handled(Events.FALLBACK, callable, e, start);
+            return handler.handle(e);
+        }
+    }
+
+    /**
+     * Fallback to the {@link BooleanHandler}, if provided {@link BooleanCallable} throws an {@link Exception}.
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static boolean fallbackBoolean(BooleanHandler handler, BooleanCallable callable) {
+        return fallbackBoolean(callable, handler);
+    }
+
+    /**
+     * Returns the implementation of the interface forwarding every method to the target, falling back to the {@link Handler} if it throws an {@link Exception}.
+     * The fallback value is cast to the return type of the method called, so one {@link Handler} should only serve methods returning the same type.
+     * The implementation class is generated once per interface, so the calls go through no reflection.
+     *
+     * @param iface public interface
+     * @param target
+     * @param handler
+     * @param <T>
+     * @return
+     */
+    public static <T> T proxy(Class<T> iface, T target, Handler<?> handler) {
+        return ProxyClass.fallback(iface, target, handler);
+    }
+
+    /**
+     * Returns the {@link DispatchBuilder} for a {@link Handler} selecting the fallback function by the type of the {@link Exception}.
+     * @param <V>
+     * @return
+     */
+    public static <V> DispatchBuilder<V> dispatch() {
+        return new DispatchBuilder<>();
+    }
+
+    /**
+     * {@link DispatchBuilder} builds the {@link Handler} applying the fallback function registered for the most specific supertype of the {@link Exception}.
+     * The match is resolved once per concrete {@link Exception} class, so dispatching costs a single lookup whatever the number of rules.
+     * @param <V>
+     */
+    public static final class DispatchBuilder<V> {
+        private final Map<Class<? extends Exception>, Handler<V>> rules = new LinkedHashMap<>();
+        private Handler<V> otherwise;
+
+        private DispatchBuilder() {
+        }
+
+        /**
+         * Registers the fallback function for the given type (and its subtypes), replacing any previous one for the same type.
+         * @param type
+         * @param fallbackFunc
+         * @param <E>
+         * @return
+         */
+        public <E extends Exception> DispatchBuilder<V> on(Class<E> type, Function<? super E, ? extends V> fallbackFunc) {
+            rules.put(type, e -> fallbackFunc.apply(type.cast(e)));
+            return this;
+        }
+
+        /**
+         * Sets the {@link Handler} for the {@link Exception} matching no type, which are otherwise rethrown wrapped into {@link RuntimeException} (if checked).
+         * @param handler
+         * @return
+         */
+        public DispatchBuilder<V> otherwise(Handler<V> handler) {
+            this.otherwise = handler;
+            return this;
+        }
+
+        /**
+         * Returns the immutable {@link Handler}.
+         * @return
+         */
+        public Handler<V> build() {
+            ExceptionTable<Handler<V>> table = new ExceptionTable<>(rules);
+            Handler<V> fallThrough = otherwise;
+            return new Handler<V>() {
+                @Override
+                public V handle(Exception e) {
+                    Handler<V> handler = table.get(e);
+                    if (handler != null) {
+                        return handler.handle(e);
+                    }
+                    if (fallThrough != null) {
+                        return fallThrough.handle(e);
+                    }
+                    throw Wrap.unchecked(e);
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return table.get(e) != null || (fallThrough != null && fallThrough.handles(e));
+                }
+            };
+        }
+    }
 }
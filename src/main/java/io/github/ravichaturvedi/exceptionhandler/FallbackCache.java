@@ -0,0 +1,330 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link FallbackCache} keeps the last value returned by the code-block for each key, and falls back to it (stale-if-error)
+ * when the code-block throws an {@link Exception}, as long as it is not older than the max staleness.
+ * Otherwise the {@link Fallback.Handler} is used. A value younger than the TTL is returned without calling the code-block at all.
+ * <p>
+ * The number of keys is bounded, the eviction follows the CLOCK policy: a hand goes round the slots, sparing once the entries read
+ * since its last pass and evicting the expired ones first. Reads and updates of a key are lock-free, so is the eviction.
+ * @param <K>
+ * @param <V>
+ */
+public class FallbackCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Entry<K, V>> slots;
+    private final AtomicInteger hand = new AtomicInteger();
+    private final long ttlNanos;
+    private final long maxStalenessNanos;
+    private final long retentionNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private FallbackCache(Builder builder) {
+        this.slots = new AtomicReferenceArray<>(builder.maximumSize);
+        this.ttlNanos = builder.ttlNanos;
+        this.maxStalenessNanos = builder.maxStalenessNanos;
+        this.retentionNanos = Math.max(ttlNanos, maxStalenessNanos);
+    }
+
+    /**
+     * Returns the {@link Builder} of a {@link FallbackCache}.
+     * @return
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the value cached for the key if younger than the TTL, otherwise the value of the provided {@link Callable} which is then cached.
+     * In case the {@link Callable} throws an {@link Exception}, returns the value cached for the key if younger than the max staleness,
+     * otherwise fallback to the value of the {@link Fallback.Handler}.
+     *
+     * @param key
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public V fallback(K key, Callable<? extends V> callable, Fallback.Handler<V> handler) {
+        long now = System.nanoTime();
+        Entry<K, V> entry = entries.get(key);
+        Stamped<V> cached = entry != null ? entry.value : null;
+        if (cached != null && now - cached.storedAt < ttlNanos) {
+            entry.referenced = true;
+            hits.increment();
+            return cached.value;
+        }
+
+        misses.increment();
+        V value;
+        try {
+            value = callable.call();
+        } catch (Exception e) {
+            if (cached != null && now - cached.storedAt <= maxStalenessNanos) {
+                entry.referenced = true;
+                staleServed.increment();
+                return cached.value;
+            }
+            fallbacks.increment();
+            return handler.handle(e);
+        }
+        store(key, entry, new Stamped<>(value, System.nanoTime()));
+        return value;
+    }
+
+    /**
+     * Returns the value cached for the key if younger than the TTL, otherwise the value of the provided {@link Callable} which is then cached.
+     * In case the {@link Callable} throws an {@link Exception}, returns the value cached for the key if younger than the max staleness,
+     * otherwise fallback to the value of the {@link Fallback.Handler}.
+     *
+     * @param key
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public V fallback(K key, Fallback.Handler<V> handler, Callable<? extends V> callable) {
+        return fallback(key, callable, handler);
+    }
+
+    /**
+     * Removes the value cached for the key.
+     * @param key
+     */
+    public void invalidate(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry != null) {
+            entry.value = null;
+        }
+    }
+
+    /**
+     * Returns the number of keys cached.
+     * @return
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the {@link Stats} of this {@link FallbackCache}.
+     * @return
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), staleServed.sum(), fallbacks.sum(), evictions.sum());
+    }
+
+    private void store(K key, Entry<K, V> entry, Stamped<V> value) {
+        if (entry != null && entries.get(key) == entry) {
+            entry.value = value;
+            return;
+        }
+
+        Entry<K, V> created = new Entry<>(key, value);
+        Entry<K, V> existing = entries.putIfAbsent(key, created);
+        if (existing != null) {
+            existing.value = value;
+            return;
+        }
+        claimSlot(created);
+    }
+
+    private void claimSlot(Entry<K, V> created) {
+        int size = slots.length();
+        for (;;) {
+            int index = (hand.getAndIncrement() & Integer.MAX_VALUE) % size;
+            Entry<K, V> victim = slots.get(index);
+            if (victim == null) {
+                if (slots.compareAndSet(index, null, created)) {
+                    return;
+                }
+                continue;
+            }
+
+            Stamped<V> value = victim.value;
+            boolean expired = value == null || System.nanoTime() - value.storedAt > retentionNanos;
+            if (victim.referenced && !expired) {
+                victim.referenced = false;
+                continue;
+            }
+            if (slots.compareAndSet(index, victim, created)) {
+                if (entries.remove(victim.key, victim)) {
+                    evictions.increment();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * {@link Stamped} is a value with the time it was stored.
+     * @param <V>
+     */
+    private static final class Stamped<V> {
+        private final V value;
+        private final long storedAt;
+
+        private Stamped(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private volatile Stamped<V> value;
+        private volatile boolean referenced;
+
+        private Entry(K key, Stamped<V> value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * {@link Stats} is a snapshot of the counters of a {@link FallbackCache}.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long staleServed;
+        private final long fallbacks;
+        private final long evictions;
+
+        private Stats(long hits, long misses, long staleServed, long fallbacks, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.staleServed = staleServed;
+            this.fallbacks = fallbacks;
+            this.evictions = evictions;
+        }
+
+        /**
+         * Returns the number of values returned from the cache without calling the code-block.
+         * @return
+         */
+        public long hits() {
+            return hits;
+        }
+
+        /**
+         * Returns the number of calls to the code-block.
+         * @return
+         */
+        public long misses() {
+            return misses;
+        }
+
+        /**
+         * Returns the number of cached values returned because the code-block failed.
+         * @return
+         */
+        public long staleServed() {
+            return staleServed;
+        }
+
+        /**
+         * Returns the number of values taken from the {@link Fallback.Handler}.
+         * @return
+         */
+        public long fallbacks() {
+            return fallbacks;
+        }
+
+        /**
+         * Returns the number of keys evicted to make room for others.
+         * @return
+         */
+        public long evictions() {
+            return evictions;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hits + ", misses=" + misses + ", staleServed=" + staleServed
+                    + ", fallbacks=" + fallbacks + ", evictions=" + evictions + "}";
+        }
+    }
+
+    /**
+     * {@link Builder} configures the {@link FallbackCache}.
+     */
+    public static final class Builder {
+        private int maximumSize = 10_000;
+        private long ttlNanos;
+        private long maxStalenessNanos = Duration.ofMinutes(5).toNanos();
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of keys cached, defaults to 10000.
+         * @param maximumSize
+         * @return
+         */
+        public Builder maximumSize(int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a value is returned without calling the code-block, defaults to 0 (the code-block is always called).
+         * @param ttl
+         * @return
+         */
+        public Builder ttl(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+            return this;
+        }
+
+        /**
+         * Sets how old a value may be to be returned when the code-block fails, defaults to 5 minutes.
+         * @param maxStaleness
+         * @return
+         */
+        public Builder maxStaleness(Duration maxStaleness) {
+            this.maxStalenessNanos = maxStaleness.toNanos();
+            return this;
+        }
+
+        /**
+         * Returns the {@link FallbackCache}.
+         * @param <K>
+         * @param <V>
+         * @return
+         */
+        public <K, V> FallbackCache<K, V> build() {
+            return new FallbackCache<>(this);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+/**
+ * {@link Fingerprint} provides static functions to identify the {@link Throwable} which are the same failure,
+ * from the {@link Throwable} class, the top frames of its stack trace and its cause chain. The message is left out,
+ * as it usually carries the values which differ from one occurrence to the next.
+ * <p>
+ * The stack trace is read with {@link Throwable#getStackTrace()}, which copies it on every call:
+ * it is per instance and there is no throw site to key a cache with, so that copy is the main cost of a fingerprint.
+ */
+public final class Fingerprint {
+
+    /**
+     * Number of frames used by {@link #of(Throwable)}.
+     */
+    public static final int DEFAULT_FRAMES = 5;
+
+    private static final int MAX_CAUSES = 8;
+
+    /**
+     * Hash of the class name, computed once per class.
+     */
+    private static final ClassValue<Long> CLASS_HASH = new ClassValue<Long>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            long hash = 0xcbf29ce484222325L;
+            String name = type.getName();
+            for (int i = 0; i < name.length(); i++) {
+                hash = (hash ^ name.charAt(i)) * 0x100000001b3L;
+            }
+            return hash;
+        }
+    };
+
+    private Fingerprint() {
+    }
+
+    /**
+     * Returns the fingerprint of the {@link Throwable} from its top {@link #DEFAULT_FRAMES} frames.
+     * @param t
+     * @return
+     */
+    public static long of(Throwable t) {
+        return of(t, DEFAULT_FRAMES);
+    }
+
+    /**
+     * Returns the fingerprint of the {@link Throwable} from its class, its top frames and the class and top frame of each cause.
+     * @param t
+     * @param frames
+     * @return
+     */
+    public static long of(Throwable t, int frames) {
+        long hash = mix(0, CLASS_HASH.get(t.getClass()));
+        if (frames > 0) {
+            hash = frames(hash, t.getStackTrace(), frames);
+        }
+
+        Throwable cause = t.getCause();
+        for (int i = 0; cause != null && cause != t && i < MAX_CAUSES; i++) {
+            hash = mix(hash, CLASS_HASH.get(cause.getClass()));
+            hash = frames(hash, cause.getStackTrace(), 1);
+            cause = cause.getCause();
+        }
+        return finish(hash);
+    }
+
+    private static long frames(long hash, StackTraceElement[] stackTrace, int frames) {
+        int count = Math.min(frames, stackTrace.length);
+        for (int i = 0; i < count; i++) {
+            StackTraceElement frame = stackTrace[i];
+            // The names are hashed with String.hashCode, which the String caches after the first call.
+            hash = mix(hash, frame.getClassName().hashCode());
+            hash = mix(hash, frame.getMethodName().hashCode());
+            hash = mix(hash, frame.getLineNumber());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x9e3779b97f4a7c15L + 0x632be59bd9b4e019L;
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * {@link Handles} provides the {@link Wrap} and {@link Fallback} functions as {@link MethodHandle} combinators,
+ * for the code linking its calls through method handles or invokedynamic.
+ * <p>
+ * The returned {@link MethodHandle} has the type of the target and is built with {@link MethodHandles#catchException},
+ * so once linked into a constant call site the JIT inlines the target and the handler as it does a hand-written try/catch,
+ * rather than going through a {@link java.util.concurrent.Callable}.
+ * The {@link Exception} handled are reported as Java Flight Recorder events, as the {@link Wrap} and {@link Fallback} functions do,
+ * with the class of the handler as the call site, the one of a {@link MethodHandle} telling nothing about it.
+ */
+public final class Handles {
+
+    private static final Wrap.Handler UNCHECKED = Wrap::unchecked;
+
+    private static final MethodHandle START;
+    private static final MethodHandle WRAPPED;
+    private static final MethodHandle WRAPPED_ALL;
+    private static final MethodHandle FALLEN_BACK;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            START = lookup.findStatic(Events.class, "start", methodType(long.class));
+            WRAPPED = lookup.findStatic(Handles.class, "wrapped",
+                    methodType(RuntimeException.class, Wrap.Handler.class, Exception.class, long.class));
+            WRAPPED_ALL = lookup.findStatic(Handles.class, "wrappedAll",
+                    methodType(RuntimeException.class, Wrap.Handler.class, Exception.class, long.class));
+            FALLEN_BACK = lookup.findStatic(Handles.class, "fallenBack",
+                    methodType(Object.class, Fallback.Handler.class, Exception.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Handles() {
+    }
+
+    /**
+     * Returns the {@link MethodHandle} wrapping the checked {@link Exception} thrown by the target into the {@link RuntimeException}.
+     *
+     * @param target
+     * @return
+     */
+    public static MethodHandle wrap(MethodHandle target) {
+        return wrap(target, UNCHECKED);
+    }
+
+    /**
+     * Returns the {@link MethodHandle} wrapping the checked {@link Exception} thrown by the target into the {@link RuntimeException} (using {@link Wrap.Handler}).
+     *
+     * @param target
+     * @param handler
+     * @return
+     */
+    public static MethodHandle wrap(MethodHandle target, Wrap.Handler handler) {
+        return rethrowing(target, WRAPPED.bindTo(handler));
+    }
+
+    /**
+     * Returns the {@link MethodHandle} wrapping the checked {@link Exception} thrown by the target into the {@link RuntimeException} (using {@link Wrap.Handler}).
+     *
+     * @param handler
+     * @param target
+     * @return
+     */
+    public static MethodHandle wrap(Wrap.Handler handler, MethodHandle target) {
+        return wrap(target, handler);
+    }
+
+    /**
+     * Returns the {@link MethodHandle} wrapping all the {@link Exception} thrown by the target into the {@link RuntimeException} (using {@link Wrap.Handler}).
+     *
+     * @param target
+     * @param handler
+     * @return
+     */
+    public static MethodHandle wrapAll(MethodHandle target, Wrap.Handler handler) {
+        return rethrowing(target, WRAPPED_ALL.bindTo(handler));
+    }
+
+    /**
+     * Returns the {@link MethodHandle} wrapping all the {@link Exception} thrown by the target into the {@link RuntimeException} (using {@link Wrap.Handler}).
+     *
+     * @param handler
+     * @param target
+     * @return
+     */
+    public static MethodHandle wrapAll(Wrap.Handler handler, MethodHandle target) {
+        return wrapAll(target, handler);
+    }
+
+    /**
+     * Returns the {@link MethodHandle} falling back to the {@link Fallback.Handler} if the target throws an {@link Exception}.
+     * The fallback value is converted to the return type of the target, a target returning a primitive can not fall back to null.
+     *
+     * @param target
+     * @param handler
+     * @return
+     */
+    public static MethodHandle fallback(MethodHandle target, Fallback.Handler<?> handler) {
+        MethodHandle fallback = FALLEN_BACK.bindTo(handler);
+        return catching(target, fallback.asType(methodType(target.type().returnType(), Exception.class, long.class)));
+    }
+
+    /**
+     * Returns the {@link MethodHandle} falling back to the {@link Fallback.Handler} if the target throws an {@link Exception}.
+     * The fallback value is converted to the return type of the target, a target returning a primitive can not fall back to null.
+     *
+     * @param handler
+     * @param target
+     * @return
+     */
+    public static MethodHandle fallback(Fallback.Handler<?> handler, MethodHandle target) {
+        return fallback(target, handler);
+    }
+
+    private static MethodHandle rethrowing(MethodHandle target, MethodHandle wrapper) {
+        MethodHandle thrower = MethodHandles.throwException(target.type().returnType(), RuntimeException.class);
+        return catching(target, MethodHandles.collectArguments(thrower, 0, wrapper));
+    }
+
+    /**
+     * Returns the target catching its {@link Exception} with the handler taking it and the start time of the target, from {@link Events#start()}.
+     */
+    private static MethodHandle catching(MethodHandle target, MethodHandle handler) {
+        MethodType type = target.type();
+        MethodHandle timed = MethodHandles.dropArguments(target, 0, long.class);
+        MethodHandle caught = MethodHandles.catchException(timed, Exception.class, MethodHandles.dropArguments(handler, 2, type.parameterList()));
+        return MethodHandles.foldArguments(caught, START);
+    }
+
+    private static RuntimeException wrapped(Wrap.Handler handler, Exception e, long start) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        Events.handled(Events.WRAP, handler, e, start);
+        return handler.handle(e);
+    }
+
+    private static RuntimeException wrappedAll(Wrap.Handler handler, Exception e, long start) {
+        Events.handled(Events.WRAP, handler, e, start);
+        return handler.handle(e);
+    }
+
+    private static Object fallenBack(Fallback.Handler<?> handler, Exception e, long start) {
+        Events.handled(Events.FALLBACK, handler, e, start);
+        return handler.handle(e);
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Hedge} runs a backup code-block when the primary one is slower than a delay, or fails before it, and returns the first value.
+ * The other code-block is then cancelled (interrupted), and the {@link Fallback.Handler} is only used if both fail.
+ * <p>
+ * The delay is either fixed, or a percentile of the latencies of the recent primary code-blocks.
+ * At most a given fraction of the calls start a backup, so hedging can't double the load on a struggling dependency.
+ * A code-block rejected by the {@link Executor} fails with the {@link RejectedExecutionException}.
+ */
+public class Hedge {
+
+    private static final long TOKEN = 1_000_000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final Executor executor;
+    private final double quantile;
+    private final long minDelayNanos;
+    private final int windowSize;
+    private final long tokensPerCall;
+
+    private volatile long delayNanos;
+    private volatile Histogram window = new Histogram();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong tokens = new AtomicLong();
+    private final LongAdder hedges = new LongAdder();
+
+    private Hedge(Builder builder) {
+        this.executor = builder.executor;
+        this.quantile = builder.quantile;
+        this.delayNanos = builder.delayNanos;
+        this.minDelayNanos = builder.minDelayNanos;
+        this.windowSize = builder.windowSize;
+        this.tokensPerCall = (long) (builder.maxHedgeRatio * TOKEN);
+    }
+
+    /**
+     * Returns the {@link Builder} of a {@link Hedge}.
+     * @return
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the current delay before starting the backup code-block.
+     * @return
+     */
+    public Duration delay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * Returns the number of backup code-blocks started.
+     * @return
+     */
+    public long hedgedCount() {
+        return hedges.sum();
+    }
+
+    /**
+     * Returns the value of the first of the primary and backup {@link Callable} to succeed, the backup being started after the delay
+     * or on the failure of the primary. Fallback to the value of the {@link Fallback.Handler} in case both throw an {@link Exception},
+     * with the first {@link Exception} (or the {@link InterruptedException} if the calling thread is interrupted).
+     *
+     * @param primary
+     * @param backup
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public <V> V fallback(Callable<V> primary, Callable<V> backup, Fallback.Handler<V> handler) {
+        earn();
+        BlockingQueue<Attempt<V>> completed = new ArrayBlockingQueue<>(2);
+        long start = System.nanoTime();
+        Attempt<V> primaryAttempt = launch(primary, completed);
+        Attempt<V> backupAttempt = null;
+        boolean waiting = true;
+        int running = 1;
+        Exception failure = null;
+        try {
+            for (;;) {
+                Attempt<V> done = waiting
+                        ? completed.poll(start + delayNanos - System.nanoTime(), TimeUnit.NANOSECONDS)
+                        : completed.take();
+                if (done == null || (waiting && done.failed())) {
+                    waiting = false;
+                    if (spend()) {
+                        backupAttempt = launch(backup, completed);
+                        running++;
+                    }
+                }
+                if (done == null) {
+                    continue;
+                }
+
+                running--;
+                try {
+                    V value = done.get();
+                    if (done == primaryAttempt || !primaryAttempt.isDone()) {
+                        // The primary still running when the backup wins takes at least as long, which is recorded as its latency:
+                        // leaving the slow primaries out would pull the percentile, and so the delay, down.
+                        record(System.nanoTime() - start);
+                    }
+                    return value;
+                } catch (ExecutionException e) {
+                    Exception cause = exception(e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+                if (running == 0) {
+                    return handler.handle(failure);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (failure != null) {
+                e.addSuppressed(failure);
+            }
+            return handler.handle(e);
+        } finally {
+            primaryAttempt.cancel(true);
+            if (backupAttempt != null) {
+                backupAttempt.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the first of the primary and backup {@link Callable} to succeed, the backup being started after the delay
+     * or on the failure of the primary. Fallback to the value of the {@link Fallback.Handler} in case both throw an {@link Exception}.
+     *
+     * @param handler
+     * @param primary
+     * @param backup
+     * @param <V>
+     * @return
+     */
+    public <V> V fallback(Fallback.Handler<V> handler, Callable<V> primary, Callable<V> backup) {
+        return fallback(primary, backup, handler);
+    }
+
+    private <V> Attempt<V> launch(Callable<V> callable, BlockingQueue<Attempt<V>> completed) {
+        Attempt<V> attempt = new Attempt<>(callable, completed);
+        try {
+            executor.execute(attempt);
+        } catch (RejectedExecutionException e) {
+            // The attempt rejected by the Executor fails, so it reaches the handler as any other failure.
+            attempt.reject(e);
+        }
+        return attempt;
+    }
+
+    private static Exception exception(Throwable cause) {
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return Wrap.unchecked(new Exception(cause));
+    }
+
+    // Every call earns a fraction of a token, every backup spends a whole one: at most maxHedgeRatio of the calls are hedged.
+    private void earn() {
+        if (tokens.get() < MAX_TOKENS) {
+            tokens.getAndUpdate(t -> Math.min(MAX_TOKENS, t + tokensPerCall));
+        }
+    }
+
+    private boolean spend() {
+        for (;;) {
+            long current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                hedges.increment();
+                return true;
+            }
+        }
+    }
+
+    private void record(long latencyNanos) {
+        if (Double.isNaN(quantile)) {
+            return;
+        }
+        Histogram current = window;
+        current.record(latencyNanos);
+        if (samples.incrementAndGet() % windowSize == 0) {
+            // The percentile of the last window becomes the delay, and the next window starts empty.
+            window = new Histogram();
+            delayNanos = Math.max(minDelayNanos, current.snapshot().percentile(quantile));
+        }
+    }
+
+    /**
+     * {@link Attempt} is a code-block run on the {@link Executor}, reporting its completion to the waiting caller.
+     * @param <V>
+     */
+    private static final class Attempt<V> extends FutureTask<V> {
+        private final BlockingQueue<Attempt<V>> completed;
+
+        private Attempt(Callable<V> callable, BlockingQueue<Attempt<V>> completed) {
+            super(callable);
+            this.completed = completed;
+        }
+
+        private void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+
+        private boolean failed() {
+            try {
+                get();
+                return false;
+            } catch (InterruptedException | ExecutionException e) {
+                return true;
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                completed.offer(this);
+            }
+        }
+    }
+
+    /**
+     * {@link Builder} configures the {@link Hedge}.
+     */
+    public static final class Builder {
+        private Executor executor;
+        private long delayNanos = Duration.ofMillis(50).toNanos();
+        private double quantile = Double.NaN;
+        private long minDelayNanos;
+        private int windowSize = 1000;
+        private double maxHedgeRatio = 0.1;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the fixed delay before starting the backup code-block, defaults to 50 milliseconds.
+         * @param delay
+         * @return
+         */
+        public Builder delay(Duration delay) {
+            this.delayNanos = delay.toNanos();
+            this.quantile = Double.NaN;
+            return this;
+        }
+
+        /**
+         * Sets the delay to the given percentile (between 0 and 1) of the latencies of the primary code-blocks,
+         * recomputed every window of the given number of successes, and starting at the initial delay.
+         * @param quantile
+         * @param initialDelay
+         * @param windowSize
+         * @return
+         */
+        public Builder percentileDelay(double quantile, Duration initialDelay, int windowSize) {
+            if (!(quantile > 0 && quantile <= 1)) {
+                throw new IllegalArgumentException("Quantile must be in (0, 1]: " + quantile);
+            }
+            this.quantile = quantile;
+            this.delayNanos = initialDelay.toNanos();
+            this.windowSize = Math.max(1, windowSize);
+            return this;
+        }
+
+        /**
+         * Sets the minimum delay when the delay is a percentile, defaults to 0.
+         * @param minDelay
+         * @return
+         */
+        public Builder minDelay(Duration minDelay) {
+            this.minDelayNanos = minDelay.toNanos();
+            return this;
+        }
+
+        /**
+         * Sets the fraction (between 0 and 1) of the calls which may start the backup code-block, defaults to 0.1.
+         * @param maxHedgeRatio
+         * @return
+         */
+        public Builder maxHedgeRatio(double maxHedgeRatio) {
+            if (!(maxHedgeRatio >= 0 && maxHedgeRatio <= 1)) {
+                throw new IllegalArgumentException("Ratio must be in [0, 1]: " + maxHedgeRatio);
+            }
+            this.maxHedgeRatio = maxHedgeRatio;
+            return this;
+        }
+
+        /**
+         * Sets the {@link Executor} running the code-blocks, defaults to {@link Async#virtualThreadExecutor()} when the JVM supports virtual threads,
+         * otherwise to a cached pool of daemon threads (the code-blocks block, they must not starve the {@link ForkJoinPool#commonPool()}).
+         * @param executor
+         * @return
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Returns the {@link Hedge}.
+         * @return
+         */
+        public Hedge build() {
+            if (executor == null) {
+                executor = Async.blockingExecutor();
+            }
+            return new Hedge(this);
+        }
+    }
+}
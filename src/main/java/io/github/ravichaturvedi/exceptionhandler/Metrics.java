@@ -0,0 +1,400 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Metrics} provides named {@link CallSite} running the {@link Wrap}, {@link Fallback} and {@link Swallow} functions while recording
+ * the invocations, the failures per {@link Exception} class, the fallbacks taken and the latency of the code-block.
+ * <p>
+ * Recording only adds to {@link LongAdder} and to a {@link Histogram}, nothing is allocated once a call site has seen an {@link Exception} class.
+ * The latency is the one of the code-block alone, the handler of a failure is not timed.
+ * The {@link Exception} handled are reported as Java Flight Recorder events as well, as the {@link Wrap}, {@link Fallback} and {@link Swallow} functions do.
+ * When disabled with {@link #setEnabled(boolean)}, a {@link CallSite} only reads a volatile flag before delegating.
+ */
+public class Metrics {
+
+    private static final Map<String, CallSite> CALL_SITES = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = true;
+
+    /**
+     * Enables or disables the recording of every {@link CallSite}, enabled by default.
+     * @param enabled
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Returns whether the {@link CallSite} are recording.
+     * @return
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the {@link CallSite} with the given name, created on first use.
+     * The {@link CallSite} is meant to be kept (e.g. in a static final field) rather than looked up on every call.
+     * @param name
+     * @return
+     */
+    public static CallSite callSite(String name) {
+        return CALL_SITES.computeIfAbsent(name, CallSite::new);
+    }
+
+    /**
+     * Returns the {@link Snapshot} of every {@link CallSite}.
+     * @return
+     */
+    public static List<Snapshot> snapshots() {
+        List<Snapshot> snapshots = new ArrayList<>();
+        for (CallSite callSite : CALL_SITES.values()) {
+            snapshots.add(callSite.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * {@link CallSite} runs the code-blocks of one place in the code, recording what happens to them.
+     */
+    public static final class CallSite {
+        private final String name;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final Map<Class<? extends Exception>, LongAdder> failuresByType = new ConcurrentHashMap<>();
+        private final Histogram latency = new Histogram();
+
+        private CallSite(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns the name of this {@link CallSite}.
+         * @return
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Returns the {@link Snapshot} of what this {@link CallSite} recorded.
+         * @return
+         */
+        public Snapshot snapshot() {
+            Map<Class<? extends Exception>, Long> byType = new HashMap<>();
+            failuresByType.forEach((type, count) -> byType.put(type, count.sum()));
+            return new Snapshot(name, invocations.sum(), failures.sum(), fallbacks.sum(), byType, latency.snapshot());
+        }
+
+        /**
+         * Wrap the checked {@link Exception} thrown by the provided {@link Runner} into the {@link RuntimeException} (using {@link Wrap.Handler}).
+         *
+         * @param runner
+         * @param handler
+         */
+        public void wrap(Runner runner, Wrap.Handler handler) {
+            if (!enabled) {
+                Wrap.wrap(runner, handler);
+                return;
+            }
+            long start = System.nanoTime();
+            long event = Events.start();
+            long elapsed = -1;
+            try {
+                runner.run();
+            } catch (RuntimeException e) {
+                elapsed = System.nanoTime() - start;
+                failed(e);
+                throw e;
+            } catch (Exception e) {
+                elapsed = System.nanoTime() - start;
+                failed(e);
+                Events.handled(Events.WRAP, runner, e, event);
+                throw handler.handle(e);
+            } finally {
+                completed(start, elapsed);
+            }
+        }
+
+        /**
+         * Wrap the checked {@link Exception} thrown by the provided {@link Runner} into the {@link RuntimeException} (using {@link Wrap.Handler}).
+         *
+         * @param handler
+         * @param runner
+         */
+        public void wrap(Wrap.Handler handler, Runner runner) {
+            wrap(runner, handler);
+        }
+
+        /**
+         * Wrap the checked {@link Exception} thrown by the provided {@link Callable} into the {@link RuntimeException} (using {@link Wrap.Handler}).
+         *
+         * @param callable
+         * @param handler
+         * @param <V>
+         * @return
+         */
+        public <V> V wrap(Callable<V> callable, Wrap.Handler handler) {
+            if (!enabled) {
+                return Wrap.wrap(callable, handler);
+            }
+            long start = System.nanoTime();
+            long event = Events.start();
+            long elapsed = -1;
+            try {
+                return callable.call();
+            } catch (RuntimeException e) {
+                elapsed = System.nanoTime() - start;
+                failed(e);
+                throw e;
+            } catch (Exception e) {
+                elapsed = System.nanoTime() - start;
+                failed(e);
+                Events.handled(Events.WRAP, callable, e, event);
+                throw handler.handle(e);
+            } finally {
+                completed(start, elapsed);
+            }
+        }
+
+        /**
+         * Wrap the checked {@link Exception} thrown by the provided {@link Callable} into the {@link RuntimeException} (using {@link Wrap.Handler}).
+         *
+         * @param handler
+         * @param callable
+         * @param <V>
+         * @return
+         */
+        public <V> V wrap(Wrap.Handler handler, Callable<V> callable) {
+            return wrap(callable, handler);
+        }
+
+        /**
+         * Fallback to the value of the {@link Fallback.Handler} in case the provided {@link Callable} throws an {@link Exception}.
+         *
+         * @param callable
+         * @param handler
+         * @param <V>
+         * @return
+         */
+        public <V> V fallback(Callable<V> callable, Fallback.Handler<V> handler) {
+            if (!enabled) {
+                return Fallback.fallback(callable, handler);
+            }
+            long start = System.nanoTime();
+            long event = Events.start();
+            long elapsed = -1;
+            try {
+                return callable.call();
+            } catch (Exception e) {
+                elapsed = System.nanoTime() - start;
+                failed(e);
+                fallbacks.increment();
+                Events.handled(Events.FALLBACK, callable, e, event);
+                return handler.handle(e);
+            } finally {
+                completed(start, elapsed);
+            }
+        }
+
+        /**
+         * Fallback to the value of the {@link Fallback.Handler} in case the provided {@link Callable} throws an {@link Exception}.
+         *
+         * @param handler
+         * @param callable
+         * @param <V>
+         * @return
+         */
+        public <V> V fallback(Fallback.Handler<V> handler, Callable<V> callable) {
+            return fallback(callable, handler);
+        }
+
+        /**
+         * Swallow the {@link Exception} thrown by the provided {@link Runner}, using provided {@link Swallow.Handler}.
+         *
+         * @param runner
+         * @param handler
+         */
+        public void swallow(Runner runner, Swallow.Handler handler) {
+            if (!enabled) {
+                Swallow.swallow(runner, handler);
+                return;
+            }
+            long start = System.nanoTime();
+            long event = Events.start();
+            long elapsed = -1;
+            try {
+                runner.run();
+            } catch (Exception e) {
+                elapsed = System.nanoTime() - start;
+                failed(e);
+                Events.handled(Events.SWALLOW, runner, e, event);
+                handler.handle(e);
+            } finally {
+                completed(start, elapsed);
+            }
+        }
+
+        /**
+         * Swallow the {@link Exception} thrown by the provided {@link Runner}, using provided {@link Swallow.Handler}.
+         *
+         * @param handler
+         * @param runner
+         */
+        public void swallow(Swallow.Handler handler, Runner runner) {
+            swallow(runner, handler);
+        }
+
+        /**
+         * Swallow the {@link Exception} thrown by the provided {@link Callable}, using provided {@link Swallow.Handler}.
+         *
+         * @param callable
+         * @param handler
+         */
+        public void swallow(Callable<?> callable, Swallow.Handler handler) {
+            if (!enabled) {
+                Swallow.swallow(callable, handler);
+                return;
+            }
+            long start = System.nanoTime();
+            long event = Events.start();
+            long elapsed = -1;
+            try {
+                callable.call();
+            } catch (Exception e) {
+                elapsed = System.nanoTime() - start;
+                failed(e);
+                Events.handled(Events.SWALLOW, callable, e, event);
+                handler.handle(e);
+            } finally {
+                completed(start, elapsed);
+            }
+        }
+
+        /**
+         * Swallow the {@link Exception} thrown by the provided {@link Callable}, using provided {@link Swallow.Handler}.
+         *
+         * @param handler
+         * @param callable
+         */
+        public void swallow(Swallow.Handler handler, Callable<?> callable) {
+            swallow(callable, handler);
+        }
+
+        /**
+         * Records the failure of a code-block run outside of this {@link CallSite}.
+         * @param e
+         */
+        public void failed(Exception e) {
+            failures.increment();
+            LongAdder count = failuresByType.get(e.getClass());
+            if (count == null) {
+                count = failuresByType.computeIfAbsent(e.getClass(), type -> new LongAdder());
+            }
+            count.increment();
+        }
+
+        /**
+         * Records the latency of the code-block, the elapsed time taken before its handler ran if it failed.
+         */
+        private void completed(long start, long elapsed) {
+            invocations.increment();
+            latency.record(elapsed >= 0 ? elapsed : System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@link Snapshot} is an immutable copy of what a {@link CallSite} recorded, to be bridged to a metrics system.
+     */
+    public static final class Snapshot {
+        private final String name;
+        private final long invocations;
+        private final long failures;
+        private final long fallbacks;
+        private final Map<Class<? extends Exception>, Long> failuresByType;
+        private final Histogram.Snapshot latency;
+
+        private Snapshot(String name, long invocations, long failures, long fallbacks,
+                         Map<Class<? extends Exception>, Long> failuresByType, Histogram.Snapshot latency) {
+            this.name = name;
+            this.invocations = invocations;
+            this.failures = failures;
+            this.fallbacks = fallbacks;
+            this.failuresByType = Collections.unmodifiableMap(failuresByType);
+            this.latency = latency;
+        }
+
+        /**
+         * Returns the name of the {@link CallSite}.
+         * @return
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Returns the number of code-blocks run.
+         * @return
+         */
+        public long invocations() {
+            return invocations;
+        }
+
+        /**
+         * Returns the number of code-blocks which threw an {@link Exception}.
+         * @return
+         */
+        public long failures() {
+            return failures;
+        }
+
+        /**
+         * Returns the number of values taken from a {@link Fallback.Handler}.
+         * @return
+         */
+        public long fallbacks() {
+            return fallbacks;
+        }
+
+        /**
+         * Returns the number of failures per {@link Exception} class.
+         * @return
+         */
+        public Map<Class<? extends Exception>, Long> failuresByType() {
+            return failuresByType;
+        }
+
+        /**
+         * Returns the latency of the code-blocks in nanoseconds.
+         * @return
+         */
+        public Histogram.Snapshot latency() {
+            return latency;
+        }
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link ProxyClass} generates the class implementing an interface by forwarding every method to a target,
+ * handling the {@link Exception} it throws with a {@link Wrap.Handler} or a {@link Fallback.Handler}, as written by hand
+ * <pre>
+ * public R method(A a) {
+ *     try {
+ *         return target.method(a);
+ *     } catch (RuntimeException e) {
+ *         throw e;
+ *     } catch (Exception e) {
+ *         throw handler.handle(e);
+ *     }
+ * }
+ * </pre>
+ * The class is written in the Java 5 class file format, which is verified without stack map frames, and defined once per interface
+ * by its own {@link ClassLoader}, so the calls are plain interface calls the JIT can inline.
+ */
+final class ProxyClass {
+
+    private static final String PACKAGE = "io/github/ravichaturvedi/exceptionhandler/generated/";
+    private static final String OBJECT = "java/lang/Object";
+    private static final String EXCEPTION = "java/lang/Exception";
+    private static final String RUNTIME_EXCEPTION = "java/lang/RuntimeException";
+    private static final String WRAP_HANDLER = internalName(Wrap.Handler.class);
+    private static final String FALLBACK_HANDLER = internalName(Fallback.Handler.class);
+
+    private static final ClassValue<Constructor<?>> WRAP_PROXIES = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> iface) {
+            return define(iface, false);
+        }
+    };
+
+    private static final ClassValue<Constructor<?>> FALLBACK_PROXIES = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> iface) {
+            return define(iface, true);
+        }
+    };
+
+    private ProxyClass() {
+    }
+
+    /**
+     * Returns the instance of the generated class forwarding to the target and wrapping the checked {@link Exception} with the handler.
+     * @param iface
+     * @param target
+     * @param handler
+     * @param <T>
+     * @return
+     */
+    static <T> T wrap(Class<T> iface, T target, Wrap.Handler handler) {
+        return newInstance(WRAP_PROXIES, iface, target, handler == null ? null : recording(target, handler));
+    }
+
+    /**
+     * Returns the instance of the generated class forwarding to the target and falling back to the handler.
+     * @param iface
+     * @param target
+     * @param handler
+     * @param <T>
+     * @return
+     */
+    static <T> T fallback(Class<T> iface, T target, Fallback.Handler<?> handler) {
+        return newInstance(FALLBACK_PROXIES, iface, target, handler == null ? null : recording(target, handler));
+    }
+
+    // The generated class is defined by its own ClassLoader and can't reach Events, so the handler it calls reports the event.
+    // The method isn't timed: the event is reported with the duration of the handling only.
+    private static Wrap.Handler recording(Object target, Wrap.Handler handler) {
+        return e -> {
+            Events.handled(Events.WRAP, target, e, Events.start());
+            return handler.handle(e);
+        };
+    }
+
+    private static <V> Fallback.Handler<V> recording(Object target, Fallback.Handler<V> handler) {
+        return e -> {
+            Events.handled(Events.FALLBACK, target, e, Events.start());
+            return handler.handle(e);
+        };
+    }
+
+    private static <T> T newInstance(ClassValue<Constructor<?>> proxies, Class<T> iface, T target, Object handler) {
+        if (!iface.isInterface() || !Modifier.isPublic(iface.getModifiers())) {
+            throw new IllegalArgumentException("Not a public interface: " + iface.getName());
+        }
+        if (target == null || handler == null) {
+            throw new NullPointerException(target == null ? "target" : "handler");
+        }
+        try {
+            return iface.cast(proxies.get(iface).newInstance(target, handler));
+        } catch (InvocationTargetException | InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Can not create the proxy of " + iface.getName(), e);
+        }
+    }
+
+    private static Constructor<?> define(Class<?> iface, boolean fallback) {
+        String name = PACKAGE + iface.getName().replace('.', '_') + (fallback ? "$Fallback" : "$Wrap");
+        byte[] bytes = generate(name, iface, fallback);
+        Class<?> proxy = new Loader(iface.getClassLoader()).define(name.replace('/', '.'), bytes);
+        try {
+            return proxy.getConstructor(iface, fallback ? Fallback.Handler.class : Wrap.Handler.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] generate(String name, Class<?> iface, boolean fallback) {
+        String ifaceName = internalName(iface);
+        String ifaceDescriptor = descriptor(iface);
+        String handler = fallback ? FALLBACK_HANDLER : WRAP_HANDLER;
+        ConstantPool pool = new ConstantPool();
+        int thisClass = pool.classRef(name);
+        int superClass = pool.classRef(OBJECT);
+        int ifaceClass = pool.classRef(ifaceName);
+        int targetField = pool.memberRef(9, name, "target", ifaceDescriptor);
+        int handlerField = pool.memberRef(9, name, "handler", "L" + handler + ";");
+        int handle = fallback
+                ? pool.memberRef(11, handler, "handle", "(L" + EXCEPTION + ";)L" + OBJECT + ";")
+                : pool.memberRef(11, handler, "handle", "(L" + EXCEPTION + ";)L" + RUNTIME_EXCEPTION + ";");
+        int exception = pool.classRef(EXCEPTION);
+        int runtimeException = pool.classRef(RUNTIME_EXCEPTION);
+        int code = pool.utf8("Code");
+
+        List<byte[]> methods = new ArrayList<>();
+        methods.add(constructor(pool, ifaceDescriptor, handler, targetField, handlerField, code));
+        for (Method method : methods(iface)) {
+            methods.add(forwarding(pool, method, ifaceName, targetField, handlerField, handle, exception, runtimeException, code, fallback));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            pool.write(out);
+            out.writeShort(0x0001 | 0x0010 | 0x0020);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(ifaceClass);
+            out.writeShort(2);
+            field(out, pool, "target", ifaceDescriptor);
+            field(out, pool, "handler", "L" + handler + ";");
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the methods to implement, once per name and descriptor.
+     */
+    private static List<Method> methods(Class<?> iface) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method method : iface.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())) {
+                methods.putIfAbsent(method.getName() + methodDescriptor(method), method);
+            }
+        }
+        return new ArrayList<>(methods.values());
+    }
+
+    private static void field(DataOutputStream out, ConstantPool pool, String name, String descriptor) throws IOException {
+        out.writeShort(0x0002 | 0x0010);
+        out.writeShort(pool.utf8(name));
+        out.writeShort(pool.utf8(descriptor));
+        out.writeShort(0);
+    }
+
+    private static byte[] constructor(ConstantPool pool, String ifaceDescriptor, String handler, int targetField, int handlerField, int code) {
+        int init = pool.memberRef(10, OBJECT, "<init>", "()V");
+        Code body = new Code();
+        body.op(0x2a).op(0xb7).u2(init);
+        body.op(0x2a).op(0x2b).op(0xb5).u2(targetField);
+        body.op(0x2a).op(0x2c).op(0xb5).u2(handlerField);
+        body.op(0xb1);
+        return method(pool, "<init>", "(" + ifaceDescriptor + "L" + handler + ";)V", code, body, 2, 3, new int[0]);
+    }
+
+    private static byte[] forwarding(ConstantPool pool, Method method, String ifaceName, int targetField, int handlerField, int handle,
+                                     int exception, int runtimeException, int code, boolean fallback) {
+        String descriptor = methodDescriptor(method);
+        Class<?> returnType = method.getReturnType();
+        int forwarded = pool.memberRef(11, ifaceName, method.getName(), descriptor);
+
+        Code body = new Code();
+        body.op(0x2a).op(0xb4).u2(targetField);
+        int slot = 1;
+        for (Class<?> type : method.getParameterTypes()) {
+            body.op(loadOpcode(type)).op(slot);
+            slot += slots(type);
+        }
+        int end = body.op(0xb9).u2(forwarded).op(slot).op(0).size();
+        body.op(returnOpcode(returnType));
+
+        int[] handlers;
+        if (fallback) {
+            int handler = body.size();
+            body.op(0x2a).op(0xb4).u2(handlerField).op(0x5f);
+            body.op(0xb9).u2(handle).op(2).op(0);
+            unbox(pool, body, returnType);
+            body.op(returnOpcode(returnType));
+            handlers = new int[]{0, end, handler, exception};
+        } else {
+            int rethrow = body.size();
+            body.op(0xbf);
+            int handler = body.size();
+            body.op(0x2a).op(0xb4).u2(handlerField).op(0x5f);
+            body.op(0xb9).u2(handle).op(2).op(0);
+            body.op(0xbf);
+            handlers = new int[]{0, end, rethrow, runtimeException, 0, end, handler, exception};
+        }
+        return method(pool, method.getName(), descriptor, code, body, Math.max(slot, 2) + 1, slot, handlers);
+    }
+
+    private static void unbox(ConstantPool pool, Code body, Class<?> type) {
+        if (type == void.class) {
+            body.op(0x57);
+        } else if (!type.isPrimitive()) {
+            if (type != Object.class) {
+                body.op(0xc0).u2(pool.classRef(internalName(type)));
+            }
+        } else {
+            String box = internalName(box(type));
+            body.op(0xc0).u2(pool.classRef(box));
+            body.op(0xb6).u2(pool.memberRef(10, box, type.getName() + "Value", "()" + descriptor(type)));
+        }
+    }
+
+    private static byte[] method(ConstantPool pool, String name, String descriptor, int code, Code body, int maxStack, int maxLocals,
+                                 int[] handlers) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(0x0001);
+            out.writeShort(pool.utf8(name));
+            out.writeShort(pool.utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(code);
+            out.writeInt(12 + body.size() + handlers.length * 2);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(body.size());
+            body.writeTo(out);
+            out.writeShort(handlers.length / 4);
+            for (int value : handlers) {
+                out.writeShort(value);
+            }
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int slots(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    private static int loadOpcode(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return 0x19;
+        }
+        return type == long.class ? 0x16 : type == float.class ? 0x17 : type == double.class ? 0x18 : 0x15;
+    }
+
+    private static int returnOpcode(Class<?> type) {
+        if (type == void.class) {
+            return 0xb1;
+        }
+        if (!type.isPrimitive()) {
+            return 0xb0;
+        }
+        return type == long.class ? 0xad : type == float.class ? 0xae : type == double.class ? 0xaf : 0xac;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (type == int.class) {
+            return Integer.class;
+        }
+        if (type == long.class) {
+            return Long.class;
+        }
+        if (type == double.class) {
+            return Double.class;
+        }
+        if (type == float.class) {
+            return Float.class;
+        }
+        if (type == boolean.class) {
+            return Boolean.class;
+        }
+        if (type == byte.class) {
+            return Byte.class;
+        }
+        if (type == short.class) {
+            return Short.class;
+        }
+        return Character.class;
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.isArray() ? descriptor(type) : type.getName().replace('.', '/');
+    }
+
+    private static String methodDescriptor(Method method) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (Class<?> type : method.getParameterTypes()) {
+            descriptor.append(descriptor(type));
+        }
+        return descriptor.append(')').append(descriptor(method.getReturnType())).toString();
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        }
+        if (!type.isPrimitive()) {
+            return "L" + type.getName().replace('.', '/') + ";";
+        }
+        if (type == void.class) {
+            return "V";
+        }
+        if (type == boolean.class) {
+            return "Z";
+        }
+        if (type == long.class) {
+            return "J";
+        }
+        return String.valueOf(Character.toUpperCase(type.getName().charAt(0)));
+    }
+
+    /**
+     * {@link Code} collects the bytecode of a method.
+     */
+    private static final class Code extends ByteArrayOutputStream {
+
+        Code op(int opcode) {
+            write(opcode);
+            return this;
+        }
+
+        Code u2(int value) {
+            write(value >>> 8);
+            write(value);
+            return this;
+        }
+    }
+
+    /**
+     * {@link ConstantPool} collects the constants of the class, each once.
+     */
+    private static final class ConstantPool {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int count = 1;
+
+        int utf8(String value) {
+            return constant("1:" + value, out -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return constant("7:" + internalName, out -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        int memberRef(int tag, String owner, String name, String descriptor) {
+            int ownerClass = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = constant("12:" + name + ' ' + descriptor, out -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return constant(tag + ":" + owner + '.' + name + ' ' + descriptor, out -> {
+                out.writeByte(tag);
+                out.writeShort(ownerClass);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        void write(DataOutputStream target) throws IOException {
+            target.writeShort(count);
+            bytes.writeTo(target);
+        }
+
+        private int constant(String key, Entry entry) {
+            Integer index = indexes.get(key);
+            if (index != null) {
+                return index;
+            }
+            try {
+                entry.write(out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            indexes.put(key, count);
+            return count++;
+        }
+
+        @FunctionalInterface
+        private interface Entry {
+            void write(DataOutputStream out) throws IOException;
+        }
+    }
+
+    /**
+     * {@link Loader} defines a generated class, resolving the handler types from this library
+     * and the others from the {@link ClassLoader} of the interface.
+     */
+    private static final class Loader extends ClassLoader {
+
+        Loader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(Wrap.Handler.class.getName())) {
+                return Wrap.Handler.class;
+            }
+            if (name.equals(Fallback.Handler.class.getName())) {
+                return Fallback.Handler.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link Result} is the immutable outcome of a code-block, either its value or the {@link Exception} it threw,
+ * so the failures can be handled as values down a pipeline rather than thrown again at each step.
+ * <p>
+ * The successful {@link Result} of null, {@link Boolean#TRUE} and {@link Boolean#FALSE} are shared instances,
+ * and the operators return the failed {@link Result} itself, so a failure goes down the pipeline without any allocation.
+ * @param <V>
+ */
+public final class Result<V> {
+
+    /**
+     * {@link Mapper} defines the function applied to the value of a successful {@link Result}, which can throw {@link Exception}.
+     * @param <V>
+     * @param <U>
+     */
+    @FunctionalInterface
+    public interface Mapper<V, U> {
+        U apply(V value) throws Exception;
+    }
+
+    private static final Result<?> NULL = new Result<>(null, null);
+    private static final Result<Boolean> TRUE = new Result<>(Boolean.TRUE, null);
+    private static final Result<Boolean> FALSE = new Result<>(Boolean.FALSE, null);
+
+    private final V value;
+    private final Exception failure;
+
+    private Result(V value, Exception failure) {
+        this.value = value;
+        this.failure = failure;
+    }
+
+    /**
+     * Returns the {@link Result} of the provided {@link Callable}.
+     *
+     * @param callable
+     * @param <V>
+     * @return
+     */
+    public static <V> Result<V> attempt(Callable<? extends V> callable) {
+        try {
+            return success(callable.call());
+        } catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * Returns the successful {@link Result} of the value.
+     * @param value
+     * @param <V>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> Result<V> success(V value) {
+        if (value == null) {
+            return (Result<V>) NULL;
+        }
+        if (value instanceof Boolean) {
+            return (Result<V>) ((Boolean) value ? TRUE : FALSE);
+        }
+        return new Result<>(value, null);
+    }
+
+    /**
+     * Returns the failed {@link Result} of the {@link Exception}.
+     * @param failure
+     * @param <V>
+     * @return
+     */
+    public static <V> Result<V> failure(Exception failure) {
+        if (failure == null) {
+            throw new NullPointerException("failure");
+        }
+        return new Result<>(null, failure);
+    }
+
+    /**
+     * Returns whether the code-block returned a value.
+     * @return
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * Returns whether the code-block threw an {@link Exception}.
+     * @return
+     */
+    public boolean isFailure() {
+        return failure != null;
+    }
+
+    /**
+     * Returns the {@link Exception} of a failed {@link Result}, null if successful.
+     * @return
+     */
+    public Exception failure() {
+        return failure;
+    }
+
+    /**
+     * Returns the value, or throws the {@link Exception} if failed, wrapped into the {@link RuntimeException} if checked.
+     * @return
+     */
+    public V get() {
+        if (failure != null) {
+            throw Wrap.unchecked(failure);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value, or throws the {@link RuntimeException} of the {@link Wrap.Handler} for the {@link Exception} if failed.
+     * @param handler
+     * @return
+     */
+    public V get(Wrap.Handler handler) {
+        if (failure != null) {
+            throw handler.handle(failure);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value, or the value of the {@link Fallback.Handler} for the {@link Exception} if failed.
+     * @param handler
+     * @return
+     */
+    public V orElse(Fallback.Handler<V> handler) {
+        return failure != null ? handler.handle(failure) : value;
+    }
+
+    /**
+     * Returns the {@link Result} of the {@link Mapper} applied to the value, or this {@link Result} if failed.
+     * @param mapper
+     * @param <U>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Result<U> map(Mapper<? super V, ? extends U> mapper) {
+        if (failure != null) {
+            return (Result<U>) this;
+        }
+        try {
+            return success(mapper.apply(value));
+        } catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * Returns the {@link Result} returned by the {@link Mapper} applied to the value, or this {@link Result} if failed.
+     * @param mapper
+     * @param <U>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Result<U> flatMap(Mapper<? super V, Result<U>> mapper) {
+        if (failure != null) {
+            return (Result<U>) this;
+        }
+        try {
+            return mapper.apply(value);
+        } catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * Returns the successful {@link Result} of the {@link Fallback.Handler} value if failed and handled by the {@link Fallback.Handler},
+     * otherwise this {@link Result}.
+     * @param handler
+     * @return
+     */
+    public Result<V> recover(Fallback.Handler<V> handler) {
+        if (failure == null || !handler.handles(failure)) {
+            return this;
+        }
+        try {
+            return success(handler.handle(failure));
+        } catch (RuntimeException e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * Returns the successful {@link Result} of the {@link Fallback.TryHandler} value if failed and handled by the {@link Fallback.TryHandler},
+     * otherwise this {@link Result}.
+     * The {@link Exception} thrown by the {@link Fallback.TryHandler} makes the failed {@link Result}.
+     * @param tryHandler
+     * @return
+     */
+    public Result<V> tryRecover(Fallback.TryHandler<V> tryHandler) {
+        if (failure == null || !tryHandler.handles(failure)) {
+            return this;
+        }
+        try {
+            return success(tryHandler.tryHandle(failure));
+        } catch (Exception e) {
+            return failure(e);
+        }
+    }
+
+    /**
+     * Returns the failed {@link Result} of the {@link RuntimeException} of the {@link Wrap.Handler} if failed, otherwise this {@link Result}.
+     * @param handler
+     * @return
+     */
+    public Result<V> mapFailure(Wrap.Handler handler) {
+        if (failure == null || !handler.handles(failure)) {
+            return this;
+        }
+        return failure(handler.handle(failure));
+    }
+
+    /**
+     * Runs the {@link Swallow.Handler} on the {@link Exception} if failed, and returns this {@link Result}.
+     * @param handler
+     * @return
+     */
+    public Result<V> onFailure(Swallow.Handler handler) {
+        if (failure != null) {
+            handler.handle(failure);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return failure != null ? "Failure(" + failure + ")" : "Success(" + value + ")";
+    }
+}
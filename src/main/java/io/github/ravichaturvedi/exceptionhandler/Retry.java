@@ -0,0 +1,407 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * {@link Retry} provides static functions to retry the provided code-block, in case it throws an {@link Exception}.
+ */
+public class Retry {
+
+    /**
+     * {@link Backoff} defines the delay before a retry.
+     */
+    @FunctionalInterface
+    public interface Backoff {
+
+        /**
+         * Returns the delay in nanoseconds before the given retry (1 for the first retry).
+         *
+         * @param retry
+         * @param previousDelayNanos delay before the previous retry, 0 for the first retry
+         * @return
+         */
+        long delayNanos(int retry, long previousDelayNanos);
+    }
+
+    /**
+     * {@link Handler} defines when and how the retry function retries.
+     * Handlers are immutable, so they can be created once and reused by every call (e.g. kept in a static final field).
+     */
+    public static final class Handler {
+        private final int maxAttempts;
+        private final Backoff backoff;
+        private final Map<Class<? extends Exception>, Predicate<Exception>> rules;
+        private final ExceptionTable<Predicate<Exception>> table;
+        private final Budget budget;
+
+        private Handler(int maxAttempts, Backoff backoff, Map<Class<? extends Exception>, Predicate<Exception>> rules, Budget budget) {
+            this.maxAttempts = maxAttempts;
+            this.backoff = backoff;
+            this.rules = rules;
+            this.table = rules.isEmpty() ? null : new ExceptionTable<>(rules);
+            this.budget = budget;
+        }
+
+        /**
+         * Returns the {@link Handler} waiting according to the given {@link Backoff} between the attempts.
+         * @param backoff
+         * @return
+         */
+        public Handler backoff(Backoff backoff) {
+            return new Handler(maxAttempts, backoff, rules, budget);
+        }
+
+        /**
+         * Returns the {@link Handler} retrying the {@link Exception} of the given type (and its subtypes).
+         * Once any type is registered, {@link Exception} matching no type are not retried.
+         * @param type
+         * @return
+         */
+        public Handler on(Class<? extends Exception> type) {
+            return on(type, e -> true);
+        }
+
+        /**
+         * Returns the {@link Handler} retrying the {@link Exception} of the given type (and its subtypes) accepted by the {@link Predicate}.
+         * The most specific registered type decides, once any type is registered {@link Exception} matching no type are not retried.
+         * @param type
+         * @param predicate
+         * @param <E>
+         * @return
+         */
+        public <E extends Exception> Handler on(Class<E> type, Predicate<? super E> predicate) {
+            Map<Class<? extends Exception>, Predicate<Exception>> copy = new LinkedHashMap<>(rules);
+            copy.put(type, e -> predicate.test(type.cast(e)));
+            return new Handler(maxAttempts, backoff, copy, budget);
+        }
+
+        /**
+         * Returns the {@link Handler} taking a token from the given {@link Budget} for every retry, and giving up when it is empty.
+         * @param budget
+         * @return
+         */
+        public Handler budget(Budget budget) {
+            return new Handler(maxAttempts, backoff, rules, budget);
+        }
+
+        boolean shouldRetry(Exception e, int attempt) {
+            if (attempt >= maxAttempts) {
+                return false;
+            }
+            if (table != null) {
+                Predicate<Exception> predicate = table.get(e);
+                if (predicate == null || !predicate.test(e)) {
+                    return false;
+                }
+            }
+            return budget == null || budget.tryAcquire();
+        }
+
+        long delayNanos(int retry, long previousDelayNanos) {
+            return Math.max(0, backoff.delayNanos(retry, previousDelayNanos));
+        }
+    }
+
+    /**
+     * {@link Budget} is the token bucket shared by the callers of one dependency, so an outage can not turn into a retry storm.
+     * Every retry takes a token, tokens are refilled at a constant rate up to the capacity. It is lock-free and thread-safe.
+     */
+    public static final class Budget {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong theoreticalArrival;
+
+        private Budget(int capacity, double tokensPerSecond) {
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+            this.burstNanos = intervalNanos > Long.MAX_VALUE / capacity ? Long.MAX_VALUE : intervalNanos * capacity;
+            this.theoreticalArrival = new AtomicLong(System.nanoTime() - burstNanos);
+        }
+
+        /**
+         * Returns the {@link Budget} holding up to the given number of tokens, refilled at the given rate.
+         * @param capacity
+         * @param tokensPerSecond
+         * @return
+         */
+        public static Budget of(int capacity, double tokensPerSecond) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+            }
+            if (!(tokensPerSecond > 0)) {
+                throw new IllegalArgumentException("Refill rate must be positive: " + tokensPerSecond);
+            }
+            return new Budget(capacity, tokensPerSecond);
+        }
+
+        /**
+         * Takes a token if available.
+         * @return whether a token was taken
+         */
+        public boolean tryAcquire() {
+            long now = System.nanoTime();
+            for (;;) {
+                long current = theoreticalArrival.get();
+                long start = current - (now - burstNanos) < 0 ? now - burstNanos : current;
+                long next = start + intervalNanos;
+                if (next - now > 0) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link Handler} making at most the given number of attempts (the first call included), without waiting in between.
+     * @param maxAttempts
+     * @return
+     */
+    public static Handler upTo(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be positive: " + maxAttempts);
+        }
+        return new Handler(maxAttempts, noBackoff(), new LinkedHashMap<>(), null);
+    }
+
+    /**
+     * Returns the {@link Backoff} retrying immediately.
+     * @return
+     */
+    public static Backoff noBackoff() {
+        return (retry, previousDelayNanos) -> 0;
+    }
+
+    /**
+     * Returns the {@link Backoff} waiting the same delay before every retry.
+     * @param delay
+     * @return
+     */
+    public static Backoff fixed(Duration delay) {
+        long delayNanos = delay.toNanos();
+        return (retry, previousDelayNanos) -> delayNanos;
+    }
+
+    /**
+     * Returns the {@link Backoff} doubling the delay before every retry, starting with the base and capped at the max.
+     * @param base
+     * @param max
+     * @return
+     */
+    public static Backoff exponential(Duration base, Duration max) {
+        long baseNanos = base.toNanos();
+        long maxNanos = max.toNanos();
+        return (retry, previousDelayNanos) -> exponentialNanos(baseNanos, maxNanos, retry);
+    }
+
+    /**
+     * Returns the {@link Backoff} waiting a random delay between zero and the {@link #exponential(Duration, Duration)} one ("full jitter").
+     * @param base
+     * @param max
+     * @return
+     */
+    public static Backoff fullJitter(Duration base, Duration max) {
+        long baseNanos = base.toNanos();
+        long maxNanos = max.toNanos();
+        return (retry, previousDelayNanos) -> {
+            long upper = exponentialNanos(baseNanos, maxNanos, retry);
+            // The bound is exclusive, a max of Long.MAX_VALUE can't take the extra nanosecond.
+            return ThreadLocalRandom.current().nextLong(upper == Long.MAX_VALUE ? upper : upper + 1);
+        };
+    }
+
+    /**
+     * Returns the {@link Backoff} waiting a random delay between the base and three times the previous delay, capped at the max ("decorrelated jitter").
+     * @param base
+     * @param max
+     * @return
+     */
+    public static Backoff decorrelatedJitter(Duration base, Duration max) {
+        long baseNanos = base.toNanos();
+        long maxNanos = max.toNanos();
+        return (retry, previousDelayNanos) -> {
+            long previous = Math.max(baseNanos, previousDelayNanos);
+            long upper = previous > Long.MAX_VALUE / 3 ? Long.MAX_VALUE : previous * 3;
+            if (upper <= baseNanos) {
+                return Math.min(maxNanos, baseNanos);
+            }
+            return Math.min(maxNanos, ThreadLocalRandom.current().nextLong(baseNanos, upper));
+        };
+    }
+
+    private static long exponentialNanos(long baseNanos, long maxNanos, int retry) {
+        int shift = Math.min(retry - 1, 62);
+        return baseNanos > (maxNanos >> shift) ? maxNanos : Math.min(maxNanos, baseNanos << shift);
+    }
+
+    /**
+     * Retry the provided {@link Callable} according to the {@link Handler}, throwing the last {@link Exception} once it gives up.
+     *
+     * @param callable
+     * @param handler
+     * @param <V>
+     * @return
+     * @throws Exception
+     */
+    public static <V> V retry(Callable<V> callable, Handler handler) throws Exception {
+        long delayNanos = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return callable.call();
+            } catch (Exception e) {
+                if (!handler.shouldRetry(e, attempt)) {
+                    throw e;
+                }
+                delayNanos = handler.delayNanos(attempt, delayNanos);
+                sleep(delayNanos, e);
+            }
+        }
+    }
+
+    /**
+     * Retry the provided {@link Callable} according to the {@link Handler}, throwing the last {@link Exception} once it gives up.
+     *
+     * @param handler
+     * @param callable
+     * @param <V>
+     * @return
+     * @throws Exception
+     */
+    public static <V> V retry(Handler handler, Callable<V> callable) throws Exception {
+        return retry(callable, handler);
+    }
+
+    /**
+     * Retry the provided {@link Runner} according to the {@link Handler}, throwing the last {@link Exception} once it gives up.
+     *
+     * @param runner
+     * @param handler
+     * @throws Exception
+     */
+    public static void retry(Runner runner, Handler handler) throws Exception {
+        long delayNanos = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                runner.run();
+                return;
+            } catch (Exception e) {
+                if (!handler.shouldRetry(e, attempt)) {
+                    throw e;
+                }
+                delayNanos = handler.delayNanos(attempt, delayNanos);
+                sleep(delayNanos, e);
+            }
+        }
+    }
+
+    /**
+     * Retry the provided {@link Runner} according to the {@link Handler}, throwing the last {@link Exception} once it gives up.
+     *
+     * @param handler
+     * @param runner
+     * @throws Exception
+     */
+    public static void retry(Handler handler, Runner runner) throws Exception {
+        retry(runner, handler);
+    }
+
+    /**
+     * Retry the provided {@link Callable} according to the {@link Handler} without blocking the calling thread,
+     * every attempt runs on the given {@link ScheduledExecutorService} after its backoff delay.
+     * The returned {@link CompletableFuture} completes with the last {@link Exception} once it gives up, cancelling it stops the retries.
+     *
+     * @param callable
+     * @param handler
+     * @param scheduler
+     * @param <V>
+     * @return
+     */
+    public static <V> CompletableFuture<V> retryAsync(Callable<V> callable, Handler handler, ScheduledExecutorService scheduler) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        try {
+            scheduler.execute(() -> attempt(callable, handler, scheduler, result, 1, 0));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Retry the provided {@link Runner} according to the {@link Handler} without blocking the calling thread,
+     * every attempt runs on the given {@link ScheduledExecutorService} after its backoff delay.
+     *
+     * @param runner
+     * @param handler
+     * @param scheduler
+     * @return
+     */
+    public static CompletableFuture<Void> retryAsync(Runner runner, Handler handler, ScheduledExecutorService scheduler) {
+        return retryAsync(() -> {
+            runner.run();
+            return null;
+        }, handler, scheduler);
+    }
+
+    private static <V> void attempt(Callable<V> callable, Handler handler, ScheduledExecutorService scheduler,
+                                    CompletableFuture<V> result, int attempt, long previousDelayNanos) {
+        if (result.isDone()) {
+            return;
+        }
+
+        try {
+            result.complete(callable.call());
+        } catch (Exception e) {
+            if (!handler.shouldRetry(e, attempt)) {
+                result.completeExceptionally(e);
+                return;
+            }
+            long delayNanos = handler.delayNanos(attempt, previousDelayNanos);
+            try {
+                scheduler.schedule(() -> attempt(callable, handler, scheduler, result, attempt + 1, delayNanos), delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException r) {
+                result.completeExceptionally(e);
+            }
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        }
+    }
+
+    static void sleep(long delayNanos, Exception failure) throws InterruptedException {
+        if (delayNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        } catch (InterruptedException e) {
+            e.addSuppressed(failure);
+            throw e;
+        }
+    }
+}
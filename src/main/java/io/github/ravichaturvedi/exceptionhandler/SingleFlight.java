@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link SingleFlight} coalesces the concurrent calls for the same key: the first caller runs the code-block, the others wait for it
+ * and all get its outcome, so a failing dependency sees one call per key instead of one per caller.
+ * The outcome is shared as is, every caller handles a failure with its own handler, whichever function it came through.
+ * <p>
+ * The callers waiting longer than the max wait give up, with a {@link TimeoutException} for their handler.
+ * The calls in flight are kept in a {@link ConcurrentHashMap}, only for the time of the call.
+ * @param <K>
+ * @param <V>
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+
+    private SingleFlight(long maxWaitNanos) {
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /**
+     * Returns the {@link SingleFlight} making the callers wait at most the given duration for the call in flight.
+     * @param maxWait
+     * @param <K>
+     * @param <V>
+     * @return
+     */
+    public static <K, V> SingleFlight<K, V> withMaxWait(Duration maxWait) {
+        return new SingleFlight<>(maxWait.toNanos());
+    }
+
+    /**
+     * Returns the number of keys with a call in flight.
+     * @return
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    /**
+     * Calls the provided {@link Callable} unless a call for the same key is in flight, in which case waits for it instead.
+     * Every caller gets the value or the {@link Exception} of the call, or a {@link TimeoutException} after the max wait.
+     *
+     * @param key
+     * @param callable
+     * @return
+     * @throws Exception
+     */
+    public V call(K key, Callable<? extends V> callable) throws Exception {
+        Flight<V> flight = join(key, callable);
+        if (flight.thrown instanceof Exception) {
+            throw (Exception) flight.thrown;
+        }
+        if (flight.thrown instanceof Error) {
+            throw (Error) flight.thrown;
+        }
+        return flight.value;
+    }
+
+    /**
+     * Calls the provided {@link Callable} unless a call for the same key is in flight, in which case waits for it instead.
+     * In case the call throws an {@link Exception}, every caller falls back to the value of its own {@link Fallback.Handler}.
+     * Callers waiting longer than the max wait fallback to their own {@link Fallback.Handler} with a {@link TimeoutException}.
+     *
+     * @param key
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public V fallback(K key, Callable<? extends V> callable, Fallback.Handler<V> handler) {
+        Flight<V> flight;
+        try {
+            flight = join(key, callable);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return handler.handle(e);
+        } catch (TimeoutException e) {
+            return handler.handle(e);
+        }
+        if (flight.thrown instanceof Exception) {
+            return handler.handle((Exception) flight.thrown);
+        }
+        if (flight.thrown instanceof Error) {
+            throw (Error) flight.thrown;
+        }
+        return flight.value;
+    }
+
+    /**
+     * Calls the provided {@link Callable} unless a call for the same key is in flight, in which case waits for it instead.
+     * In case the call throws an {@link Exception}, every caller falls back to the value of its own {@link Fallback.Handler}.
+     *
+     * @param key
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public V fallback(K key, Fallback.Handler<V> handler, Callable<? extends V> callable) {
+        return fallback(key, callable, handler);
+    }
+
+    private Flight<V> join(K key, Callable<? extends V> callable) throws InterruptedException, TimeoutException {
+        Flight<V> flight = flights.get(key);
+        if (flight == null) {
+            Flight<V> created = new Flight<>();
+            flight = flights.putIfAbsent(key, created);
+            if (flight == null) {
+                run(key, created, callable);
+                return created;
+            }
+        }
+
+        if (!flight.await(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("Gave up waiting for the call in flight after " + Duration.ofNanos(maxWaitNanos));
+        }
+        return flight;
+    }
+
+    private void run(K key, Flight<V> flight, Callable<? extends V> callable) {
+        try {
+            flight.value = callable.call();
+        } catch (Throwable t) {
+            flight.thrown = t;
+        } finally {
+            flights.remove(key, flight);
+            flight.countDown();
+        }
+    }
+
+    /**
+     * {@link Flight} is a call in flight, its value or failure is published by the count down.
+     * @param <V>
+     */
+    private static final class Flight<V> extends CountDownLatch {
+        private V value;
+        private Throwable thrown;
+
+        private Flight() {
+            super(1);
+        }
+    }
+}
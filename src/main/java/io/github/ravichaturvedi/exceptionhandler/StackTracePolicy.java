@@ -0,0 +1,229 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * {@link StackTracePolicy} decides how much of the stack trace is captured when {@link Wrap} wraps an {@link Exception} into a {@link RuntimeException}.
+ * Walking the stack is the dominant cost of a wrapped failure, so the policies let callers trade diagnostics for throughput.
+ */
+public abstract class StackTracePolicy {
+
+    private static final String PACKAGE = StackTracePolicy.class.getPackage().getName();
+
+    private static final StackTracePolicy FULL = new StackTracePolicy() {
+        @Override
+        public RuntimeException create(Exception cause) {
+            return new RuntimeException(cause);
+        }
+    };
+
+    private static final StackTracePolicy NONE = new StackTracePolicy() {
+        @Override
+        public RuntimeException create(Exception cause) {
+            return new WrappedException(cause);
+        }
+    };
+
+    /**
+     * Creates the {@link RuntimeException} wrapping the provided cause.
+     *
+     * @param cause
+     * @return
+     */
+    public abstract RuntimeException create(Exception cause);
+
+    /**
+     * Returns the instance to be used by a single call site, policies keeping per call site state return a fresh copy.
+     *
+     * @return
+     */
+    StackTracePolicy forCallSite() {
+        return this;
+    }
+
+    /**
+     * Returns the {@link StackTracePolicy} capturing the full stack trace for every failure, the behaviour of {@link RuntimeException#RuntimeException(Throwable)}.
+     *
+     * @return
+     */
+    public static StackTracePolicy full() {
+        return FULL;
+    }
+
+    /**
+     * Returns the {@link StackTracePolicy} which never captures a stack trace, the cause keeps its own.
+     *
+     * @return
+     */
+    public static StackTracePolicy none() {
+        return NONE;
+    }
+
+    /**
+     * Returns the {@link StackTracePolicy} capturing the full stack trace for the first and then every n-th failure of a call site,
+     * all the other failures carry no stack trace.
+     * Each {@link Wrap.Handler} created from the policy counts on its own, the global default counts across all its callers.
+     *
+     * @param n
+     * @return
+     */
+    public static StackTracePolicy sampled(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Sampling rate must be positive: " + n);
+        }
+        return new Sampled(n);
+    }
+
+    /**
+     * Returns the {@link StackTracePolicy} capturing at most the given number of frames, starting at the caller of the library.
+     * On Java 9+ only those frames are walked, Java 8 walks the whole stack and truncates it afterwards.
+     *
+     * @param depth
+     * @return
+     */
+    public static StackTracePolicy truncated(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth must not be negative: " + depth);
+        }
+        return depth == 0 ? NONE : new Truncated(depth);
+    }
+
+    private static final class Sampled extends StackTracePolicy {
+        private final int n;
+        private final AtomicLong failures = new AtomicLong();
+
+        private Sampled(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public RuntimeException create(Exception cause) {
+            if (failures.getAndIncrement() % n == 0) {
+                return new RuntimeException(cause);
+            }
+            return new WrappedException(cause);
+        }
+
+        @Override
+        StackTracePolicy forCallSite() {
+            return new Sampled(n);
+        }
+    }
+
+    private static final class Truncated extends StackTracePolicy {
+        private final int depth;
+
+        private Truncated(int depth) {
+            this.depth = depth;
+        }
+
+        @Override
+        public RuntimeException create(Exception cause) {
+            return new WrappedException(cause, StackWalking.capture(depth));
+        }
+    }
+
+    /**
+     * {@link StackWalking} captures the top frames outside of the library, using {@code java.lang.StackWalker} when available.
+     */
+    private static final class StackWalking {
+
+        private static final MethodHandle WALK;
+        private static final MethodHandle CLASS_NAME;
+        private static final MethodHandle TO_ELEMENT;
+
+        static {
+            MethodHandle walk = null;
+            MethodHandle className = null;
+            MethodHandle toElement = null;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+                Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+                Object walker = walkerClass.getMethod("getInstance").invoke(null);
+                walk = lookup.findVirtual(walkerClass, "walk", MethodType.methodType(Object.class, Function.class))
+                        .bindTo(walker);
+                className = lookup.findVirtual(frameClass, "getClassName", MethodType.methodType(String.class))
+                        .asType(MethodType.methodType(String.class, Object.class));
+                toElement = lookup.findVirtual(frameClass, "toStackTraceElement", MethodType.methodType(StackTraceElement.class))
+                        .asType(MethodType.methodType(StackTraceElement.class, Object.class));
+            } catch (Exception e) {
+                walk = null;
+            }
+            WALK = walk;
+            CLASS_NAME = className;
+            TO_ELEMENT = toElement;
+        }
+
+        static StackTraceElement[] capture(int depth) {
+            if (WALK == null) {
+                return truncate(new Throwable().getStackTrace(), depth);
+            }
+
+            // Stream.dropWhile is Java 9+: only the leading library frames are skipped, the same frames as truncate().
+            boolean[] caller = {false};
+            Function<Stream<Object>, StackTraceElement[]> frames = s -> s
+                    .filter(f -> caller[0] || (caller[0] = !isLibraryClass(className(f))))
+                    .limit(depth)
+                    .map(StackWalking::toElement)
+                    .toArray(StackTraceElement[]::new);
+            try {
+                return (StackTraceElement[]) (Object) WALK.invokeExact(frames);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        private static StackTraceElement[] truncate(StackTraceElement[] stackTrace, int depth) {
+            int from = 0;
+            while (from < stackTrace.length && isLibraryClass(stackTrace[from].getClassName())) {
+                from++;
+            }
+            return Arrays.copyOfRange(stackTrace, from, Math.min(stackTrace.length, from + depth));
+        }
+
+        private static String className(Object frame) {
+            try {
+                return (String) CLASS_NAME.invokeExact(frame);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        private static StackTraceElement toElement(Object frame) {
+            try {
+                return (StackTraceElement) TO_ELEMENT.invokeExact(frame);
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+
+    private static boolean isLibraryClass(String className) {
+        return className.startsWith(PACKAGE) && className.lastIndexOf('.') == PACKAGE.length();
+    }
+}
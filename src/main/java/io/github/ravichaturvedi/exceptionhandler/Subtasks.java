@@ -0,0 +1,354 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link Subtasks} provides static functions to fan a call out into concurrent subtasks, each started on its own thread,
+ * and join them all before returning, so no subtask outlives the call.
+ * <p>
+ * {@link #invokeAll} fails fast: the first failure interrupts the running siblings and skips the ones not started yet,
+ * then it is thrown as {@link Wrap#wrap} does. {@link #invokeAny} returns the first value, interrupting the losers.
+ * With a {@link Cleanup.Handler}, the values of the subtasks which completed but are not returned are closed if {@link AutoCloseable},
+ * the failures closing them handed to the {@link Cleanup.Handler}.
+ * <p>
+ * The subtasks run on the virtual threads when the JVM supports them, otherwise on a cached pool of daemon threads.
+ */
+public class Subtasks {
+
+    /**
+     * Runs the provided {@link Callable} concurrently and returns their values by position,
+     * wrapping the first checked {@link Exception} into the {@link RuntimeException} (using {@link Wrap.Handler}) after cancelling the others.
+     *
+     * @param tasks
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public static <V> List<V> invokeAll(List<? extends Callable<? extends V>> tasks, Wrap.Handler handler) {
+        return invokeAll(tasks, handler, null, Async.blockingExecutor());
+    }
+
+    /**
+     * Runs the provided {@link Callable} concurrently and returns their values by position,
+     * wrapping the first checked {@link Exception} into the {@link RuntimeException} (using {@link Wrap.Handler}) after cancelling the others
+     * and closing the values already returned with the {@link Cleanup.Handler}.
+     *
+     * @param tasks
+     * @param handler
+     * @param cleanupHandler
+     * @param <V>
+     * @return
+     */
+    public static <V> List<V> invokeAll(List<? extends Callable<? extends V>> tasks, Wrap.Handler handler, Cleanup.Handler cleanupHandler) {
+        return invokeAll(tasks, handler, cleanupHandler, Async.blockingExecutor());
+    }
+
+    /**
+     * Runs the provided {@link Callable} concurrently on the {@link Executor} and returns their values by position,
+     * wrapping the first checked {@link Exception} into the {@link RuntimeException} (using {@link Wrap.Handler}) after cancelling the others
+     * and closing the values already returned with the {@link Cleanup.Handler} (if not null).
+     *
+     * @param tasks
+     * @param handler
+     * @param cleanupHandler
+     * @param executor
+     * @param <V>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> List<V> invokeAll(List<? extends Callable<? extends V>> tasks, Wrap.Handler handler, Cleanup.Handler cleanupHandler,
+                                        Executor executor) {
+        Join join = run(tasks.toArray(new Callable<?>[0]), false, executor);
+        Throwable failure = join.failure.get();
+        if (failure != null) {
+            release(join.values, -1, cleanupHandler);
+            throw unchecked(failure, handler);
+        }
+        return Collections.unmodifiableList(Arrays.asList((V[]) join.values));
+    }
+
+    /**
+     * Runs the provided {@link Runner} concurrently,
+     * wrapping the first checked {@link Exception} into the {@link RuntimeException} (using {@link Wrap.Handler}) after cancelling the others.
+     *
+     * @param runners
+     * @param handler
+     */
+    public static void runAll(List<? extends Runner> runners, Wrap.Handler handler) {
+        runAll(runners, handler, Async.blockingExecutor());
+    }
+
+    /**
+     * Runs the provided {@link Runner} concurrently on the {@link Executor},
+     * wrapping the first checked {@link Exception} into the {@link RuntimeException} (using {@link Wrap.Handler}) after cancelling the others.
+     *
+     * @param runners
+     * @param handler
+     * @param executor
+     */
+    public static void runAll(List<? extends Runner> runners, Wrap.Handler handler, Executor executor) {
+        Callable<?>[] tasks = new Callable<?>[runners.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            Runner runner = runners.get(i);
+            tasks[i] = () -> {
+                runner.run();
+                return null;
+            };
+        }
+        Throwable failure = run(tasks, false, executor).failure.get();
+        if (failure != null) {
+            throw unchecked(failure, handler);
+        }
+    }
+
+    /**
+     * Runs the provided {@link Callable} concurrently and returns the first value, cancelling the others.
+     * If they all fail, the first checked {@link Exception} is wrapped into the {@link RuntimeException} (using {@link Wrap.Handler}),
+     * with the other failures suppressed.
+     *
+     * @param tasks
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public static <V> V invokeAny(List<? extends Callable<? extends V>> tasks, Wrap.Handler handler) {
+        return invokeAny(tasks, handler, null, Async.blockingExecutor());
+    }
+
+    /**
+     * Runs the provided {@link Callable} concurrently and returns the first value, cancelling the others
+     * and closing the values they returned anyway with the {@link Cleanup.Handler}.
+     * If they all fail, the first checked {@link Exception} is wrapped into the {@link RuntimeException} (using {@link Wrap.Handler}),
+     * with the other failures suppressed.
+     *
+     * @param tasks
+     * @param handler
+     * @param cleanupHandler
+     * @param <V>
+     * @return
+     */
+    public static <V> V invokeAny(List<? extends Callable<? extends V>> tasks, Wrap.Handler handler, Cleanup.Handler cleanupHandler) {
+        return invokeAny(tasks, handler, cleanupHandler, Async.blockingExecutor());
+    }
+
+    /**
+     * Runs the provided {@link Callable} concurrently on the {@link Executor} and returns the first value, cancelling the others
+     * and closing the values they returned anyway with the {@link Cleanup.Handler} (if not null).
+     * If they all fail, the first checked {@link Exception} is wrapped into the {@link RuntimeException} (using {@link Wrap.Handler}),
+     * with the other failures suppressed.
+     *
+     * @param tasks
+     * @param handler
+     * @param cleanupHandler
+     * @param executor
+     * @param <V>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> V invokeAny(List<? extends Callable<? extends V>> tasks, Wrap.Handler handler, Cleanup.Handler cleanupHandler,
+                                  Executor executor) {
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException("No task to invoke");
+        }
+        Join join = run(tasks.toArray(new Callable<?>[0]), true, executor);
+        int winner = join.winner.get();
+        Throwable failure = join.failure.get();
+        if (winner >= 0 && failure == null) {
+            release(join.values, winner, cleanupHandler);
+            return (V) join.values[winner];
+        }
+        release(join.values, -1, cleanupHandler);
+        if (failure == null) {
+            for (Throwable t : join.failures) {
+                if (failure == null) {
+                    failure = t;
+                } else if (t != null) {
+                    failure.addSuppressed(t);
+                }
+            }
+        }
+        throw unchecked(failure, handler);
+    }
+
+    private static Join run(Callable<?>[] tasks, boolean any, Executor executor) {
+        Join join = new Join(tasks.length, any);
+        int submitted = 0;
+        try {
+            for (; submitted < tasks.length; submitted++) {
+                executor.execute(new Subtask(join, submitted, tasks[submitted]));
+            }
+        } catch (RejectedExecutionException e) {
+            join.abort(e);
+            for (int i = submitted; i < tasks.length; i++) {
+                join.finished.countDown();
+            }
+        }
+
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                join.finished.await();
+                break;
+            } catch (InterruptedException e) {
+                if (!interrupted) {
+                    interrupted = true;
+                    join.abort(e);
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return join;
+    }
+
+    private static void release(Object[] values, int kept, Cleanup.Handler cleanupHandler) {
+        if (cleanupHandler == null) {
+            return;
+        }
+        CleanupScope scope = Cleanup.scope(cleanupHandler);
+        for (int i = 0; i < values.length; i++) {
+            if (i != kept && values[i] instanceof AutoCloseable) {
+                scope.register((AutoCloseable) values[i]);
+            }
+        }
+        scope.close();
+    }
+
+    private static RuntimeException unchecked(Throwable failure, Wrap.Handler handler) {
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            return (RuntimeException) failure;
+        }
+        return handler.handle((Exception) failure);
+    }
+
+    /**
+     * {@link Join} gathers the outcome of the subtasks of one call.
+     * The values and failures are written by the subtasks before counting down {@link #finished}, so the caller reads them after waiting.
+     * A subtask checks {@link #done} after publishing its thread, so it is either skipped or interrupted by {@link #cancel()}.
+     */
+    private static final class Join {
+        final Object[] values;
+        final Throwable[] failures;
+        final AtomicReferenceArray<Subtask> subtasks;
+        final CountDownLatch finished;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final AtomicInteger winner = new AtomicInteger(-1);
+        final boolean any;
+        volatile boolean done;
+
+        Join(int size, boolean any) {
+            this.values = new Object[size];
+            this.failures = any ? new Throwable[size] : null;
+            this.subtasks = new AtomicReferenceArray<>(size);
+            this.finished = new CountDownLatch(size);
+            this.any = any;
+        }
+
+        void succeeded(int index, Object value) {
+            values[index] = value;
+            if (any && winner.compareAndSet(-1, index)) {
+                cancel();
+            }
+        }
+
+        void failed(int index, Throwable t) {
+            if (any) {
+                failures[index] = t;
+            } else {
+                abort(t);
+            }
+        }
+
+        void abort(Throwable t) {
+            if (failure.compareAndSet(null, t)) {
+                cancel();
+            }
+        }
+
+        private void cancel() {
+            done = true;
+            for (int i = 0; i < subtasks.length(); i++) {
+                Subtask subtask = subtasks.get(i);
+                if (subtask != null) {
+                    subtask.interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * {@link Subtask} runs one code-block unless the call is already done, and can be interrupted while running.
+     */
+    private static final class Subtask implements Runnable {
+        private final Join join;
+        private final int index;
+        private final Callable<?> callable;
+        private Thread runner;
+        private boolean interrupted;
+
+        Subtask(Join join, int index, Callable<?> callable) {
+            this.join = join;
+            this.index = index;
+            this.callable = callable;
+            join.subtasks.set(index, this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                synchronized (this) {
+                    runner = Thread.currentThread();
+                }
+                if (!join.done) {
+                    join.succeeded(index, callable.call());
+                }
+            } catch (Throwable t) {
+                join.failed(index, t);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    if (interrupted) {
+                        Thread.interrupted();
+                    }
+                }
+                join.finished.countDown();
+            }
+        }
+
+        synchronized void interrupt() {
+            if (runner != null) {
+                interrupted = true;
+                runner.interrupt();
+            }
+        }
+    }
+}
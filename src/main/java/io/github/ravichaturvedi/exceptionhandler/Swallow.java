@@ -16,9 +16,11 @@
 package io.github.ravichaturvedi.exceptionhandler;
 
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
-
-import static io.github.ravichaturvedi.exceptionhandler.Callables.from;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * {@link Swallow} provides static functions to deal with swallowing the {@link Exception}, in case provided code-block throws an {@link Exception}.
@@ -35,12 +37,96 @@ public class Swallow {
 
     /**
      * {@link Handler} defines the handler for the swallow function.
+     * Handlers are immutable, so they can be created once and reused by every call (e.g. kept in a static final field).
      */
     @FunctionalInterface
-    private interface Handler {
+    public interface Handler {
         void handle(Exception e);
+
+        /**
+         * Returns whether this {@link Handler} handles the given {@link Exception}, others fall through in {@link #orElse(Handler)}.
+         * @param e
+         * @return
+         */
+        default boolean handles(Exception e) {
+            return true;
+        }
+
+        /**
+         * Returns the {@link Handler} falling through to the next {@link Handler} for the {@link Exception} not handled by this one.
+         * @param next
+         * @return
+         */
+        default Handler orElse(Handler next) {
+            Handler first = this;
+            return new Handler() {
+                @Override
+                public void handle(Exception e) {
+                    if (first.handles(e)) {
+                        first.handle(e);
+                    } else {
+                        next.handle(e);
+                    }
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return first.handles(e) || next.handles(e);
+                }
+            };
+        }
+
+        /**
+         * Returns the {@link Handler} running this and then the next {@link Handler}, each one for the {@link Exception} it handles.
+         * @param next
+         * @return
+         */
+        default Handler andThen(Handler next) {
+            Handler first = this;
+            return new Handler() {
+                @Override
+                public void handle(Exception e) {
+                    if (first.handles(e)) {
+                        first.handle(e);
+                    }
+                    if (next.handles(e)) {
+                        next.handle(e);
+                    }
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return first.handles(e) || next.handles(e);
+                }
+            };
+        }
+
+        /**
+         * Returns the {@link Handler} mapping the {@link Exception} with the given {@link Function} before handling it.
+         * @param mapper
+         * @return
+         */
+        default Handler mapping(Function<? super Exception, ? extends Exception> mapper) {
+            Handler handler = this;
+            return new Handler() {
+                @Override
+                public void handle(Exception e) {
+                    handler.handle(mapper.apply(e));
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return handler.handles(mapper.apply(e));
+                }
+            };
+        }
     }
 
+    /**
+     * {@link Handler} which ignores the {@link Exception}.
+     */
+    private static final Handler NOOP_HANDLER = e -> {};
+
     /**
      * Returns the {@link Handler} for the given {@link ExceptionLogger}.
      * @param exceptionLogger
@@ -50,6 +136,30 @@ public class Swallow {
         return exceptionLogger::log;
     }
 
+    /**
+     * Returns the {@link Handler} for the given {@link Consumer}, handling only the {@link Exception} of the given type.
+     * Other {@link Exception} are swallowed silently, unless an {@link Handler#orElse(Handler)} handles them.
+     * @param type
+     * @param exceptionLogger
+     * @param <E>
+     * @return
+     */
+    public static <E extends Exception> Handler usingLogger(Class<E> type, Consumer<? super E> exceptionLogger) {
+        return new Handler() {
+            @Override
+            public void handle(Exception e) {
+                if (type.isInstance(e)) {
+                    exceptionLogger.accept(type.cast(e));
+                }
+            }
+
+            @Override
+            public boolean handles(Exception e) {
+                return type.isInstance(e);
+            }
+        };
+    }
+
     /**
      * Swallow the {@link Exception} thrown by the provided {@link Runner}, using provided {@link Handler}.
      *
@@ -57,7 +167,13 @@ public class Swallow {
      * @param handler
      */
     public static void swallow(Runner runner, Handler handler) {
-        swallow(from(runner), handler);
+        long start = Events.start();
+        try {
+            runner.run();
+        } catch (Exception e) {
+            Events.handled(Events.SWALLOW, runner, e, start);
+            handler.handle(e);
+        }
     }
 
     /**
@@ -76,7 +192,7 @@ public class Swallow {
      * @param runner
      */
     public static void swallow(Runner runner) {
-        swallow(from(runner));
+        swallow(runner, NOOP_HANDLER);
     }
 
     /**
@@ -86,9 +202,11 @@ public class Swallow {
      * @param handler
      */
     public static void swallow(Callable<?> callable, Handler handler) {
+        long start = Events.start();
         try {
             callable.call();
         } catch (Exception e) {
+            Events.handled(Events.SWALLOW, callable, e, start);
             handler.handle(e);
         }
     }
@@ -109,6 +227,73 @@ public class Swallow {
      * @param callable
      */
     public static void swallow(Callable<?> callable) {
-        swallow(callable, usingLogger(e -> {}));
+        swallow(callable, NOOP_HANDLER);
+    }
+
+    /**
+     * Returns the {@link DispatchBuilder} for a {@link Handler} selecting the exception logger by the type of the {@link Exception}.
+     * @return
+     */
+    public static DispatchBuilder dispatch() {
+        return new DispatchBuilder();
+    }
+
+    /**
+     * {@link DispatchBuilder} builds the {@link Handler} running the exception logger registered for the most specific supertype of the {@link Exception}.
+     * The match is resolved once per concrete {@link Exception} class, so dispatching costs a single lookup whatever the number of rules.
+     */
+    public static final class DispatchBuilder {
+        private final Map<Class<? extends Exception>, Handler> rules = new LinkedHashMap<>();
+        private Handler otherwise;
+
+        private DispatchBuilder() {
+        }
+
+        /**
+         * Registers the exception logger for the given type (and its subtypes), replacing any previous one for the same type.
+         * @param type
+         * @param exceptionLogger
+         * @param <E>
+         * @return
+         */
+        public <E extends Exception> DispatchBuilder on(Class<E> type, Consumer<? super E> exceptionLogger) {
+            rules.put(type, e -> exceptionLogger.accept(type.cast(e)));
+            return this;
+        }
+
+        /**
+         * Sets the {@link Handler} for the {@link Exception} matching no type, which are otherwise swallowed silently.
+         * @param handler
+         * @return
+         */
+        public DispatchBuilder otherwise(Handler handler) {
+            this.otherwise = handler;
+            return this;
+        }
+
+        /**
+         * Returns the immutable {@link Handler}.
+         * @return
+         */
+        public Handler build() {
+            ExceptionTable<Handler> table = new ExceptionTable<>(rules);
+            Handler fallThrough = otherwise;
+            return new Handler() {
+                @Override
+                public void handle(Exception e) {
+                    Handler handler = table.get(e);
+                    if (handler != null) {
+                        handler.handle(e);
+                    } else if (fallThrough != null) {
+                        fallThrough.handle(e);
+                    }
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return table.get(e) != null || (fallThrough != null && fallThrough.handles(e));
+                }
+            };
+        }
     }
 }
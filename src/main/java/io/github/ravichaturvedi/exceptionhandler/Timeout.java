@@ -0,0 +1,252 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link Timeout} provides static functions to run the code-block on the calling thread with a deadline, interrupting it when the deadline passes.
+ * The code-block interrupted fails with a {@link TimeoutException}, handled as the {@link Wrap} and {@link Fallback} functions do.
+ * <p>
+ * The deadlines are tracked by a shared hashed timing wheel ticking every millisecond, so scheduling and cancelling one costs O(1)
+ * whatever the number of timed calls in flight. A code-block ignoring the interruption runs to completion, and its outcome is kept.
+ */
+public class Timeout {
+
+    /**
+     * Longest timeout scheduled (about 73 years), so the deadline and its distance to the current time never overflow.
+     */
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE / 4;
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link Callable} into the {@link RuntimeException},
+     * interrupting it after the timeout.
+     *
+     * @param callable
+     * @param timeout
+     * @param <V>
+     * @return
+     */
+    public static <V> V wrap(Callable<V> callable, Duration timeout) {
+        try {
+            return call(callable, nanos(timeout));
+        } catch (Exception e) {
+            throw Wrap.unchecked(e);
+        }
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link Callable} into the {@link RuntimeException} (using {@link Wrap.Handler}),
+     * interrupting it after the timeout.
+     *
+     * @param callable
+     * @param timeout
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public static <V> V wrap(Callable<V> callable, Duration timeout, Wrap.Handler handler) {
+        try {
+            return call(callable, nanos(timeout));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link Callable} into the {@link RuntimeException} (using {@link Wrap.Handler}),
+     * interrupting it after the timeout.
+     *
+     * @param handler
+     * @param timeout
+     * @param callable
+     * @param <V>
+     * @return
+     */
+    public static <V> V wrap(Wrap.Handler handler, Duration timeout, Callable<V> callable) {
+        return wrap(callable, timeout, handler);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link Runner} into the {@link RuntimeException} (using {@link Wrap.Handler}),
+     * interrupting it after the timeout.
+     *
+     * @param runner
+     * @param timeout
+     * @param handler
+     */
+    public static void wrap(Runner runner, Duration timeout, Wrap.Handler handler) {
+        wrap(() -> {
+            runner.run();
+            return null;
+        }, timeout, handler);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link Runner} into the {@link RuntimeException} (using {@link Wrap.Handler}),
+     * interrupting it after the timeout.
+     *
+     * @param handler
+     * @param timeout
+     * @param runner
+     */
+    public static void wrap(Wrap.Handler handler, Duration timeout, Runner runner) {
+        wrap(runner, timeout, handler);
+    }
+
+    /**
+     * Fallback to the value of the {@link Fallback.Handler} in case the provided {@link Callable} throws an {@link Exception}
+     * or is interrupted after the timeout.
+     *
+     * @param callable
+     * @param timeout
+     * @param handler
+     * @param <V>
+     * @return
+     */
+    public static <V> V fallback(Callable<V> callable, Duration timeout, Fallback.Handler<V> handler) {
+        try {
+            return call(callable, nanos(timeout));
+        } catch (Exception e) {
+            return handler.handle(e);
+        }
+    }
+
+    /**
+     * Fallback to the value of the {@link Fallback.Handler} in case the provided {@link Callable} throws an {@link Exception}
+     * or is interrupted after the timeout.
+     *
+     * @param handler
+     * @param timeout
+     * @param callable
+     * @param <V>
+     * @return
+     */
+    public static <V> V fallback(Fallback.Handler<V> handler, Duration timeout, Callable<V> callable) {
+        return fallback(callable, timeout, handler);
+    }
+
+    /**
+     * Returns the timeout in nanoseconds, saturated at {@link Long#MAX_VALUE} rather than overflowing.
+     * @param timeout
+     * @return
+     */
+    static long nanos(Duration timeout) {
+        try {
+            return timeout.toNanos();
+        } catch (ArithmeticException e) {
+            return timeout.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    static <V> V call(Callable<V> callable, long timeoutNanos) throws Exception {
+        Deadline deadline = start(timeoutNanos);
+        V value;
+        try {
+            value = callable.call();
+        } catch (Exception e) {
+            throw deadline.failed(e);
+        } catch (Throwable t) {
+            deadline.finish();
+            throw t;
+        }
+        deadline.finish();
+        return value;
+    }
+
+    /**
+     * Returns the {@link Deadline} of the calling thread, interrupting it after the timeout unless finished before.
+     * A timeout beyond {@link #MAX_TIMEOUT_NANOS} is not scheduled, the call has no deadline.
+     * @param timeoutNanos
+     * @return
+     */
+    static Deadline start(long timeoutNanos) {
+        long now = System.nanoTime();
+        if (timeoutNanos > MAX_TIMEOUT_NANOS) {
+            // The deadline would overflow, and it could not pass anyway.
+            return new Deadline(Thread.currentThread(), now, timeoutNanos);
+        }
+        Deadline deadline = new Deadline(Thread.currentThread(), now + timeoutNanos, timeoutNanos);
+        TimingWheel.instance().schedule(deadline);
+        return deadline;
+    }
+
+    /**
+     * {@link Deadline} interrupts the calling thread when it expires.
+     * The calling thread and the wheel thread agree through the state of the {@link TimingWheel.Task}: the calling thread finishing first
+     * cancels it, otherwise it waits for the interruption to be delivered and clears it, so it doesn't leak past the timed call.
+     * The interruption is only delivered, and so cleared, if the calling thread isn't interrupted already, so a pending one is kept.
+     */
+    static final class Deadline extends TimingWheel.Task {
+        private static final long serialVersionUID = 1L;
+
+        private final Thread caller;
+        private final long timeoutNanos;
+        private boolean delivered;
+        private volatile boolean fired;
+
+        private Deadline(Thread caller, long deadline, long timeoutNanos) {
+            super(deadline);
+            this.caller = caller;
+            this.timeoutNanos = timeoutNanos;
+        }
+
+        @Override
+        void expired() {
+            if (!caller.isInterrupted()) {
+                caller.interrupt();
+                delivered = true;
+            }
+            fired = true;
+        }
+
+        /**
+         * Returns whether the call finished before the deadline, clearing the interruption otherwise.
+         * @return
+         */
+        boolean finish() {
+            if (cancel()) {
+                return true;
+            }
+            while (!fired) {
+                Thread.yield();
+            }
+            if (delivered) {
+                Thread.interrupted();
+            }
+            return false;
+        }
+
+        /**
+         * Returns the {@link Exception} thrown by the call, or the {@link TimeoutException} caused by it if the deadline passed.
+         * @param e
+         * @return
+         */
+        Exception failed(Exception e) {
+            if (finish()) {
+                return e;
+            }
+            TimeoutException timeout = new TimeoutException("Timed out after " + Duration.ofNanos(timeoutNanos));
+            timeout.initCause(e);
+            return timeout;
+        }
+    }
+}
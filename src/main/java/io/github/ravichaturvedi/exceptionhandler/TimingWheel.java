@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link TimingWheel} is a hashed timing wheel (G. Varghese and T. Lauck): a ring of buckets, each one holding the {@link Task}
+ * expiring at the ticks mapped to it, advanced by a single daemon thread.
+ * <p>
+ * Scheduling only enqueues the {@link Task} for the wheel thread, and cancelling only flips its state, the wheel thread unlinking
+ * cancelled {@link Task} when it goes over their bucket: both are O(1) whatever the number of {@link Task}.
+ * The wheel thread parks while no {@link Task} is scheduled.
+ */
+final class TimingWheel {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    /**
+     * {@link Task} expires at its deadline unless cancelled before.
+     */
+    abstract static class Task extends AtomicInteger {
+        private static final long serialVersionUID = 1L;
+
+        private final long deadline;
+        private long tick;
+        private Task prev;
+        private Task next;
+
+        Task(long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels this {@link Task}.
+         * @return whether it was cancelled before expiring
+         */
+        final boolean cancel() {
+            return compareAndSet(PENDING, CANCELLED);
+        }
+
+        final boolean isCancelled() {
+            return get() == CANCELLED;
+        }
+
+        /**
+         * Runs on the wheel thread when this {@link Task} expires, it must not block.
+         */
+        abstract void expired();
+    }
+
+    private static final class Holder {
+        private static final TimingWheel INSTANCE = new TimingWheel(TimeUnit.MILLISECONDS.toNanos(1), 512);
+    }
+
+    private final long tickNanos;
+    private final Task[] buckets;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Task> pending = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean sleeping;
+
+    // Owned by the wheel thread.
+    private final long start = System.nanoTime();
+    private long tick;
+    private int size;
+
+    TimingWheel(long tickNanos, int buckets) {
+        this.tickNanos = tickNanos;
+        this.buckets = new Task[buckets];
+        this.mask = buckets - 1;
+        this.thread = new Thread(this::run, "timing-wheel");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the {@link TimingWheel} shared by the library, ticking every millisecond.
+     * @return
+     */
+    static TimingWheel instance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Schedules the {@link Task} to expire at its deadline, at the latest one tick after it.
+     * @param task
+     */
+    void schedule(Task task) {
+        pending.offer(task);
+        if (sleeping) {
+            sleeping = false;
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        for (;;) {
+            long now = System.nanoTime();
+            long currentTick = (now - start) / tickNanos;
+            transferPending();
+            while (tick <= currentTick) {
+                expire(buckets[(int) tick & mask], now);
+                tick++;
+            }
+
+            if (size == 0) {
+                // Announce the sleep before re-checking the queue, so a schedule can't go unnoticed in between.
+                sleeping = true;
+                if (pending.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                sleeping = false;
+                tick = (System.nanoTime() - start) / tickNanos;
+            } else {
+                LockSupport.parkNanos(this, start + tick * tickNanos - System.nanoTime());
+            }
+        }
+    }
+
+    private void transferPending() {
+        Task task;
+        while ((task = pending.poll()) != null) {
+            if (task.isCancelled()) {
+                continue;
+            }
+            // Rounded up, so a task never expires before its deadline.
+            task.tick = Math.max(tick, (task.deadline - start + tickNanos - 1) / tickNanos);
+            int index = (int) task.tick & mask;
+            task.prev = null;
+            task.next = buckets[index];
+            if (task.next != null) {
+                task.next.prev = task;
+            }
+            buckets[index] = task;
+            size++;
+        }
+    }
+
+    private void expire(Task head, long now) {
+        Task task = head;
+        while (task != null) {
+            Task next = task.next;
+            if (task.isCancelled()) {
+                unlink(task);
+            } else if (task.tick <= tick && task.deadline - now <= 0) {
+                unlink(task);
+                if (task.compareAndSet(PENDING, EXPIRED)) {
+                    task.expired();
+                }
+            }
+            task = next;
+        }
+    }
+
+    private void unlink(Task task) {
+        int index = (int) task.tick & mask;
+        if (task.prev != null) {
+            task.prev.next = task.next;
+        } else {
+            buckets[index] = task.next;
+        }
+        if (task.next != null) {
+            task.next.prev = task.prev;
+        }
+        task.prev = null;
+        task.next = null;
+        size--;
+    }
+}
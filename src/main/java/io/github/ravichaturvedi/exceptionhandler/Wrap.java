@@ -15,11 +15,11 @@
  */
 package io.github.ravichaturvedi.exceptionhandler;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.function.Function;
 
-import static io.github.ravichaturvedi.exceptionhandler.Callables.from;
-
 
 /**
  * {@link Wrap} provides static methods to wrap the {@link Exception} thrown by the provided code-block into {@link RuntimeException}.
@@ -28,10 +28,84 @@ public class Wrap {
 
     /**
      * {@link Handler} defines the handler for the wrap function.
+     * Handlers are immutable, so they can be created once and reused by every call (e.g. kept in a static final field).
      */
     @FunctionalInterface
-    private interface Handler {
+    public interface Handler {
         RuntimeException handle(Exception e);
+
+        /**
+         * Returns whether this {@link Handler} handles the given {@link Exception}, others fall through in {@link #orElse(Handler)}.
+         * @param e
+         * @return
+         */
+        default boolean handles(Exception e) {
+            return true;
+        }
+
+        /**
+         * Returns the {@link Handler} falling through to the next {@link Handler} for the {@link Exception} not handled by this one.
+         * @param next
+         * @return
+         */
+        default Handler orElse(Handler next) {
+            Handler first = this;
+            return new Handler() {
+                @Override
+                public RuntimeException handle(Exception e) {
+                    return first.handles(e) ? first.handle(e) : next.handle(e);
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return first.handles(e) || next.handles(e);
+                }
+            };
+        }
+
+        /**
+         * Returns the {@link Handler} mapping the {@link Exception} with the given {@link Function} before handling it.
+         * @param mapper
+         * @return
+         */
+        default Handler mapping(Function<? super Exception, ? extends Exception> mapper) {
+            Handler handler = this;
+            return new Handler() {
+                @Override
+                public RuntimeException handle(Exception e) {
+                    return handler.handle(mapper.apply(e));
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return handler.handles(mapper.apply(e));
+                }
+            };
+        }
+    }
+
+    /**
+     * {@link StackTracePolicy} used by the {@link #DEFAULT_HANDLER}.
+     */
+    private static volatile StackTracePolicy defaultStackTracePolicy = StackTracePolicy.full();
+
+    /**
+     * Default {@link Handler}, wrapping the {@link Exception} into {@link RuntimeException} using the default {@link StackTracePolicy}.
+     */
+    private static final Handler DEFAULT_HANDLER = e -> defaultStackTracePolicy.create(e);
+
+    /**
+     * Sets the {@link StackTracePolicy} used by the overloads without {@link Handler}, defaults to {@link StackTracePolicy#full()}.
+     * Those overloads share the single default instance, so a {@link StackTracePolicy#sampled(int)} policy counts the failures
+     * of all their callers together: a call site failing rarely may never get a stack trace while a busy one keeps failing.
+     * Call sites needing their own count use a {@link Handler} of {@link #using(StackTracePolicy)}.
+     * @param stackTracePolicy
+     */
+    public static void setDefaultStackTracePolicy(StackTracePolicy stackTracePolicy) {
+        if (stackTracePolicy == null) {
+            throw new NullPointerException("stackTracePolicy");
+        }
+        defaultStackTracePolicy = stackTracePolicy.forCallSite();
     }
 
     /**
@@ -43,13 +117,54 @@ public class Wrap {
         return exceptionFunction::apply;
     }
 
+    /**
+     * Returns the handler out of the provided exception {@link Function}, handling only the {@link Exception} of the given type.
+     * Other {@link Exception} are wrapped into {@link RuntimeException}, unless an {@link Handler#orElse(Handler)} handles them.
+     * @param type
+     * @param exceptionFunction
+     * @param <E>
+     * @return
+     */
+    public static <E extends Exception> Handler using(Class<E> type, Function<? super E, ? extends RuntimeException> exceptionFunction) {
+        return new Handler() {
+            @Override
+            public RuntimeException handle(Exception e) {
+                return type.isInstance(e) ? exceptionFunction.apply(type.cast(e)) : DEFAULT_HANDLER.handle(e);
+            }
+
+            @Override
+            public boolean handles(Exception e) {
+                return type.isInstance(e);
+            }
+        };
+    }
+
+    /**
+     * Returns the handler wrapping into {@link RuntimeException} with the provided {@link StackTracePolicy}.
+     * Sampling policies count the failures per returned handler, so keep one handler per call site.
+     * @param stackTracePolicy
+     * @return
+     */
+    public static Handler using(StackTracePolicy stackTracePolicy) {
+        return stackTracePolicy.forCallSite()::create;
+    }
+
+    /**
+     * Returns the provided {@link Exception} if unchecked, otherwise wraps it with the default {@link Handler}.
+     * @param e
+     * @return
+     */
+    static RuntimeException unchecked(Exception e) {
+        return e instanceof RuntimeException ? (RuntimeException) e : DEFAULT_HANDLER.handle(e);
+    }
+
     /**
      * Wrap the checked {@link Exception} thrown by the provided {@link Runner} into the {@link RuntimeException}.
      *
      * @param runner
      */
     public static void wrap(Runner runner) {
-        wrap(from(runner));
+        wrap(runner, DEFAULT_HANDLER);
     }
 
     /**
@@ -59,7 +174,15 @@ public class Wrap {
      * @param handler
      */
     public static void wrap(Runner runner, Handler handler) {
-        wrap(from(runner), handler);
+        long start = Events.start();
+        try {
+            runner.run();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, runner, e, start);
+            throw handler.handle(e);
+        }
     }
 
     /**
@@ -78,7 +201,13 @@ public class Wrap {
      * @param handler
      */
     public static void wrapAll(Runner runner, Handler handler) {
-        wrapAll(from(runner), handler);
+        long start = Events.start();
+        try {
+            runner.run();
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, runner, e, start);
+            throw handler.handle(e);
+        }
     }
 
     /**
@@ -98,7 +227,7 @@ public class Wrap {
      * @return
      */
     public static <V> V wrap(Callable<V> callable) {
-        return wrap(callable, using(RuntimeException::new));
+        return wrap(callable, DEFAULT_HANDLER);
     }
 
     /**
@@ -110,11 +239,13 @@ public class Wrap {
      * @return
      */
     public static <V> V wrap(Callable<V> callable, Handler handler) {
+        long start = Events.start();
         try {
             return callable.call();
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
             throw handler.handle(e);
         }
     }
@@ -140,9 +271,11 @@ public class Wrap {
      * @return
      */
     public static <V> V wrapAll(Callable<V> callable, Handler handler) {
+        long start = Events.start();
         try {
             return callable.call();
         } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
             throw handler.handle(e);
         }
     }
@@ -158,4 +291,369 @@ public class Wrap {
     public static <V> V wrapAll(Handler handler, Callable<V> callable) {
         return wrapAll(callable, handler);
     }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link IntCallable} into the {@link RuntimeException}.
+     *
+     * @param callable
+     * @return
+     */
+    public static int wrapInt(IntCallable callable) {
+        return wrapInt(callable, DEFAULT_HANDLER);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link IntCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static int wrapInt(IntCallable callable, Handler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link IntCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static int wrapInt(Handler handler, IntCallable callable) {
+        return wrapInt(callable, handler);
+    }
+
+    /**
+     * Wrap all the {@link Exception} thrown by the provided {@link IntCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static int wrapAllInt(IntCallable callable, Handler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Wrap all the {@link Exception} thrown by the provided {@link IntCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static int wrapAllInt(Handler handler, IntCallable callable) {
+        return wrapAllInt(callable, handler);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link LongCallable} into the {@link RuntimeException}.
+     *
+     * @param callable
+     * @return
+     */
+    public static long wrapLong(LongCallable callable) {
+        return wrapLong(callable, DEFAULT_HANDLER);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link LongCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static long wrapLong(LongCallable callable, Handler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link LongCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static long wrapLong(Handler handler, LongCallable callable) {
+        return wrapLong(callable, handler);
+    }
+
+    /**
+     * Wrap all the {@link Exception} thrown by the provided {@link LongCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static long wrapAllLong(LongCallable callable, Handler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Wrap all the {@link Exception} thrown by the provided {@link LongCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static long wrapAllLong(Handler handler, LongCallable callable) {
+        return wrapAllLong(callable, handler);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link DoubleCallable} into the {@link RuntimeException}.
+     *
+     * @param callable
+     * @return
+     */
+    public static double wrapDouble(DoubleCallable callable) {
+        return wrapDouble(callable, DEFAULT_HANDLER);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link DoubleCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static double wrapDouble(DoubleCallable callable, Handler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link DoubleCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static double wrapDouble(Handler handler, DoubleCallable callable) {
+        return wrapDouble(callable, handler);
+    }
+
+    /**
+     * Wrap all the {@link Exception} thrown by the provided {@link DoubleCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static double wrapAllDouble(DoubleCallable callable, Handler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Wrap all the {@link Exception} thrown by the provided {@link DoubleCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static double wrapAllDouble(Handler handler, DoubleCallable callable) {
+        return wrapAllDouble(callable, handler);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link BooleanCallable} into the {@link RuntimeException}.
+     *
+     * @param callable
+     * @return
+     */
+    public static boolean wrapBoolean(BooleanCallable callable) {
+        return wrapBoolean(callable, DEFAULT_HANDLER);
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link BooleanCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static boolean wrapBoolean(BooleanCallable callable, Handler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Wrap the checked {@link Exception} thrown by the provided {@link BooleanCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static boolean wrapBoolean(Handler handler, BooleanCallable callable) {
+        return wrapBoolean(callable, handler);
+    }
+
+    /**
+     * Wrap all the {@link Exception} thrown by the provided {@link BooleanCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param callable
+     * @param handler
+     * @return
+     */
+    public static boolean wrapAllBoolean(BooleanCallable callable, Handler handler) {
+        long start = Events.start();
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            Events.handled(Events.WRAP, callable, e, start);
+            throw handler.handle(e);
+        }
+    }
+
+    /**
+     * Wrap all the {@link Exception} thrown by the provided {@link BooleanCallable} into the {@link RuntimeException} (using {@link Handler}).
+     *
+     * @param handler
+     * @param callable
+     * @return
+     */
+    public static boolean wrapAllBoolean(Handler handler, BooleanCallable callable) {
+        return wrapAllBoolean(callable, handler);
+    }
+
+    /**
+     * Returns the implementation of the interface forwarding every method to the target, wrapping the checked {@link Exception} into the {@link RuntimeException}.
+     * The implementation class is generated once per interface, so the calls go through no reflection.
+     *
+     * @param iface public interface
+     * @param target
+     * @param <T>
+     * @return
+     */
+    public static <T> T proxy(Class<T> iface, T target) {
+        return ProxyClass.wrap(iface, target, DEFAULT_HANDLER);
+    }
+
+    /**
+     * Returns the implementation of the interface forwarding every method to the target, wrapping the checked {@link Exception} into the {@link RuntimeException} (using {@link Handler}).
+     * The implementation class is generated once per interface, so the calls go through no reflection.
+     *
+     * @param iface public interface
+     * @param target
+     * @param handler
+     * @param <T>
+     * @return
+     */
+    public static <T> T proxy(Class<T> iface, T target, Handler handler) {
+        return ProxyClass.wrap(iface, target, handler);
+    }
+
+    /**
+     * Returns the {@link DispatchBuilder} for a {@link Handler} selecting the exception function by the type of the {@link Exception}.
+     * @return
+     */
+    public static DispatchBuilder dispatch() {
+        return new DispatchBuilder();
+    }
+
+    /**
+     * {@link DispatchBuilder} builds the {@link Handler} applying the exception function registered for the most specific supertype of the {@link Exception}.
+     * The match is resolved once per concrete {@link Exception} class, so dispatching costs a single lookup whatever the number of rules.
+     */
+    public static final class DispatchBuilder {
+        private final Map<Class<? extends Exception>, Handler> rules = new LinkedHashMap<>();
+        private Handler otherwise;
+
+        private DispatchBuilder() {
+        }
+
+        /**
+         * Registers the exception function for the given type (and its subtypes), replacing any previous one for the same type.
+         * @param type
+         * @param exceptionFunction
+         * @param <E>
+         * @return
+         */
+        public <E extends Exception> DispatchBuilder on(Class<E> type, Function<? super E, ? extends RuntimeException> exceptionFunction) {
+            rules.put(type, e -> exceptionFunction.apply(type.cast(e)));
+            return this;
+        }
+
+        /**
+         * Sets the {@link Handler} for the {@link Exception} matching no type, which are otherwise wrapped into {@link RuntimeException}.
+         * @param handler
+         * @return
+         */
+        public DispatchBuilder otherwise(Handler handler) {
+            this.otherwise = handler;
+            return this;
+        }
+
+        /**
+         * Returns the immutable {@link Handler}.
+         * @return
+         */
+        public Handler build() {
+            ExceptionTable<Handler> table = new ExceptionTable<>(rules);
+            Handler fallThrough = otherwise;
+            return new Handler() {
+                @Override
+                public RuntimeException handle(Exception e) {
+                    Handler handler = table.get(e);
+                    if (handler != null) {
+                        return handler.handle(e);
+                    }
+                    return fallThrough != null ? fallThrough.handle(e) : DEFAULT_HANDLER.handle(e);
+                }
+
+                @Override
+                public boolean handles(Exception e) {
+                    return table.get(e) != null || (fallThrough != null && fallThrough.handles(e));
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+/**
+ * {@link WrappedException} is the {@link RuntimeException} created by the {@link StackTracePolicy}, which never walks the stack by itself.
+ * It either carries no stack trace at all or the (possibly truncated) stack trace handed to it.
+ */
+public class WrappedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final StackTraceElement[] NO_STACK_TRACE = new StackTraceElement[0];
+
+    /**
+     * Wraps the provided cause without any stack trace.
+     *
+     * @param cause
+     */
+    public WrappedException(Throwable cause) {
+        super(cause == null ? null : cause.toString(), cause, true, false);
+    }
+
+    /**
+     * Wraps the provided cause with the given stack trace.
+     *
+     * @param cause
+     * @param stackTrace
+     */
+    public WrappedException(Throwable cause, StackTraceElement[] stackTrace) {
+        super(cause == null ? null : cause.toString(), cause, true, true);
+        setStackTrace(stackTrace == null ? NO_STACK_TRACE : stackTrace);
+    }
+
+    /**
+     * Does not walk the stack, the stack trace is either absent or provided at construction.
+     *
+     * @return
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * {@link HandledExceptionEvent} is the Java Flight Recorder event of an {@link Exception} handled by the library.
+ */
+@Name("io.github.ravichaturvedi.exceptionhandler.HandledException")
+@Label("Handled Exception")
+@Category("Exception Handler")
+@Description("Exception wrapped, fallen back on, swallowed or cleaned up by the exception handler")
+class HandledExceptionEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Exception Class")
+    Class<?> exceptionClass;
+
+    @Label("Message")
+    String message;
+
+    @Label("Block Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long blockDuration;
+
+    @Label("Call Site")
+    String callSite;
+}
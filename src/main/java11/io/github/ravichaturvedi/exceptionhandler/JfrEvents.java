@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler;
+
+
+import jdk.jfr.EventType;
+
+/**
+ * {@link JfrEvents} is the {@link Events.Sink} committing a {@link HandledExceptionEvent} per handled {@link Exception}.
+ */
+final class JfrEvents implements Events.Sink {
+
+    private static final EventType TYPE = EventType.getEventType(HandledExceptionEvent.class);
+
+    @Override
+    public long start() {
+        return TYPE.isEnabled() ? System.nanoTime() : Events.NOT_RECORDING;
+    }
+
+    @Override
+    public void handled(String operation, Object block, Exception e, long start) {
+        long duration = System.nanoTime() - start;
+        HandledExceptionEvent event = new HandledExceptionEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.exceptionClass = e.getClass();
+            event.message = e.getMessage();
+            event.blockDuration = duration;
+            // The lambda and method reference classes are named after the class declaring them, which is enough to find the call site.
+            event.callSite = block.getClass().getName();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Cleanup;
+import io.github.ravichaturvedi.exceptionhandler.Fallback;
+import io.github.ravichaturvedi.exceptionhandler.Runner;
+import io.github.ravichaturvedi.exceptionhandler.Swallow;
+import io.github.ravichaturvedi.exceptionhandler.Wrap;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.cleanup;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallback;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.swallow;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.wrap;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TestAllocation {
+
+    // Kept below the JIT compilation thresholds, so escape analysis can not hide the allocations.
+    private static final int ITERATIONS = 1_000;
+
+    private static final Runner RUNNER = () -> {};
+    private static final Callable<String> CALLABLE = () -> "value";
+
+    private static final Wrap.Handler WRAP_HANDLER = Wrap.using(IllegalStateException::new);
+    private static final Fallback.Handler<String> FALLBACK_HANDLER = Fallback.to("fallback");
+    private static final Swallow.Handler SWALLOW_HANDLER = Swallow.usingLogger(System.out::println);
+    private static final Cleanup.Handler CLEANUP_HANDLER = Cleanup.with(System.out::println);
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+
+    @Before
+    public void setup() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void testWrapRunner() {
+        assertThat(bytesPerOp(() -> wrap(RUNNER)), is(0L));
+    }
+
+    @Test
+    public void testSwallowRunner() {
+        assertThat(bytesPerOp(() -> swallow(RUNNER)), is(0L));
+    }
+
+    @Test
+    public void testHoistedHandlers() {
+        assertThat(bytesPerOp(() -> wrap(RUNNER, WRAP_HANDLER)), is(0L));
+        assertThat(bytesPerOp(() -> fallback(CALLABLE, FALLBACK_HANDLER)), is(0L));
+        assertThat(bytesPerOp(() -> swallow(RUNNER, SWALLOW_HANDLER)), is(0L));
+        assertThat(bytesPerOp(() -> cleanup(RUNNER, CLEANUP_HANDLER)), is(0L));
+    }
+
+    private long bytesPerOp(java.lang.Runnable op) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            op.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            op.run();
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+    }
+}
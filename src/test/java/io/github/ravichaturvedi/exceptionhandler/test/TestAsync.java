@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.exceptionhandler.Async.*;
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.with;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.usingLogger;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestAsync {
+
+    private static final Executor EXECUTOR = virtualThreadExecutor();
+
+    @Test
+    public void testAsync() throws Exception {
+        assertThat(wrapAsync(() -> TestHelper.foo(3), EXECUTOR).get(5, TimeUnit.SECONDS), is(3));
+        assertThat(fallbackAsync(() -> TestHelper.foo(""), to("2"), EXECUTOR).get(5, TimeUnit.SECONDS), is("2"));
+
+        try {
+            wrapAsync(TestHelper::bar, using(IllegalStateException::new), EXECUTOR).get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+            assertThat(e.getCause().getCause().getMessage(), is("bla bla"));
+        }
+
+        List<String> handled = new ArrayList<>();
+        swallowAsync(TestHelper::bar, usingLogger(e -> handled.add("swallow " + e.getMessage())), EXECUTOR).get(5, TimeUnit.SECONDS);
+        cleanupAsync(() -> TestHelper.foo(""), with(e -> handled.add("cleanup " + e.getMessage())), EXECUTOR).get(5, TimeUnit.SECONDS);
+        assertThat(handled.toString(), is("[swallow bla bla, cleanup Not a number]"));
+    }
+
+    @Test
+    public void testStage() throws Exception {
+        CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException("io"));
+        CompletableFuture<String> dependent = failed.thenApply(s -> s + "!").thenApply(s -> s + "!");
+
+        try {
+            wrap(dependent, using(IOException.class, UncheckedIOException::new)).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(UncheckedIOException.class));
+            assertThat(e.getCause().getCause().getMessage(), is("io"));
+        }
+
+        assertThat(fallback(dependent, to(e -> e.getMessage())).get(), is("io"));
+
+        CompletableFuture<String> runtimeFailure = new CompletableFuture<>();
+        runtimeFailure.completeExceptionally(new IllegalStateException("state"));
+        try {
+            wrap(runtimeFailure.thenApply(s -> s), using(IOException.class, UncheckedIOException::new)).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+        try {
+            wrapAll(runtimeFailure.thenApply(s -> s), using(IllegalArgumentException::new)).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalArgumentException.class));
+            assertThat(e.getCause().getCause().getMessage(), is("state"));
+        }
+
+        List<String> handled = new ArrayList<>();
+        swallow(dependent, usingLogger(e -> handled.add("swallow " + e.getMessage()))).get();
+        cleanup(dependent, with(e -> handled.add("cleanup " + e.getMessage()))).get();
+        cleanup(CompletableFuture.completedFuture("ok"), with(e -> handled.add("not called"))).get();
+        assertThat(handled.toString(), is("[swallow io, cleanup io]"));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.AsyncExceptionLogger;
+import io.github.ravichaturvedi.exceptionhandler.AsyncExceptionLogger.Overflow;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.swallow;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.usingLogger;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TestAsyncExceptionLogger {
+
+    private final List<String> logged = new CopyOnWriteArrayList<>();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // Blocks the background thread on the first exception, so the following ones fill the buffer.
+    private void slowLog(Exception e) {
+        logged.add(e.getMessage());
+        entered.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AsyncExceptionLogger fill(Overflow overflow) throws InterruptedException {
+        AsyncExceptionLogger logger = AsyncExceptionLogger.builder(this::slowLog).capacity(2).batchSize(1).overflow(overflow).build();
+        logger.log(new Exception("e0"));
+        assertThat(entered.await(5, TimeUnit.SECONDS), is(true));
+        return logger;
+    }
+
+    @Test
+    public void testLog() throws Exception {
+        AsyncExceptionLogger logger = AsyncExceptionLogger.builder(e -> logged.add(e.getMessage())).build();
+        swallow(TestHelper::bar, usingLogger(logger));
+        swallow(() -> TestHelper.foo(""), usingLogger(logger));
+        logger.close();
+        assertThat(logged.toString(), is("[bla bla, Not a number]"));
+        assertThat(logger.loggedCount(), is(2L));
+        assertThat(logger.droppedCount(), is(0L));
+
+        logger.log(new Exception("closed"));
+        assertThat(logger.droppedCount(), is(1L));
+    }
+
+    @Test
+    public void testDropNewest() throws Exception {
+        AsyncExceptionLogger logger = fill(Overflow.DROP_NEWEST);
+        for (int i = 1; i <= 4; i++) {
+            logger.log(new Exception("e" + i));
+        }
+        assertThat(logger.droppedCount(), is(2L));
+        release.countDown();
+        logger.close();
+        assertThat(logged.toString(), is("[e0, e1, e2]"));
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+        AsyncExceptionLogger logger = fill(Overflow.DROP_OLDEST);
+        for (int i = 1; i <= 4; i++) {
+            logger.log(new Exception("e" + i));
+        }
+        assertThat(logger.droppedCount(), is(2L));
+        release.countDown();
+        logger.close();
+        assertThat(logged.toString(), is("[e0, e3, e4]"));
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        AsyncExceptionLogger logger = fill(Overflow.BLOCK);
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            release.countDown();
+        });
+        releaser.start();
+        for (int i = 1; i <= 4; i++) {
+            logger.log(new Exception("e" + i));
+        }
+        logger.close();
+        assertThat(logged.toString(), is("[e0, e1, e2, e3, e4]"));
+        assertThat(logger.droppedCount(), is(0L));
+    }
+
+    @Test
+    public void testCloseInterrupted() throws Exception {
+        AsyncExceptionLogger logger = fill(Overflow.DROP_NEWEST);
+        logger.log(new Exception("e1"));
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            release.countDown();
+        });
+        releaser.start();
+
+        Thread.currentThread().interrupt();
+        logger.close();
+        assertThat(Thread.interrupted(), is(true));
+        assertThat(logged.toString(), is("[e0, e1]"));
+    }
+}
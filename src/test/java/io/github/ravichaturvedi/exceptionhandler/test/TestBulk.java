@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Bulk;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.exceptionhandler.Bulk.*;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.usingLogger;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestBulk {
+
+    private static List<Callable<Object>> tasks(int count) {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Object val = i % 3 == 0 ? "" : i;
+            tasks.add(() -> TestHelper.foo(val));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void testInvokeAll() {
+        Bulk.Results<Object> results = invokeAll(tasks(100), Mode.COLLECT_ALL, 4);
+        assertThat(results.size(), is(100));
+        assertThat(results.successCount(), is(66));
+        assertThat(results.failureCount(), is(34));
+        assertThat(results.cancelledCount(), is(0));
+        assertThat(results.isFailure(0), is(true));
+        assertThat(results.failure(0).getMessage(), is("Not a number"));
+        assertThat(results.get(0), nullValue());
+        assertThat(results.isSuccess(1), is(true));
+        assertThat(results.get(1), is(1));
+        assertThat(results.failure(1), nullValue());
+    }
+
+    @Test
+    public void testFailFast() {
+        AtomicInteger started = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int val = i;
+            tasks.add(() -> {
+                started.incrementAndGet();
+                if (val == 10) {
+                    throw new Exception("bla bla");
+                }
+                return val;
+            });
+        }
+
+        Bulk.Results<Integer> results = invokeAll(tasks, Mode.FAIL_FAST, 2, new ForkJoinPool(2));
+        assertThat(results.failureCount(), is(1));
+        assertThat(results.failure(10).getMessage(), is("bla bla"));
+        assertThat(results.cancelledCount() > 0, is(true));
+        assertThat(results.cancelledCount(), is(1000 - started.get()));
+        assertThat(results.isCancelled(999), is(true));
+    }
+
+    @Test
+    public void testFallbackAll() {
+        Bulk.Results<Object> results = fallbackAll(tasks(10), to(-1), 3);
+        assertThat(results.failureCount(), is(4));
+        assertThat(results.get(0), is(-1));
+        assertThat(results.failure(0).getMessage(), is("Not a number"));
+        assertThat(results.get(2), is(2));
+    }
+
+    @Test
+    public void testSwallowAll() {
+        AtomicInteger swallowed = new AtomicInteger();
+        Bulk.Results<Object> results = swallowAll(tasks(10), usingLogger(e -> swallowed.incrementAndGet()), 1);
+        assertThat(swallowed.get(), is(4));
+        assertThat(results.failureCount(), is(4));
+        assertThat(results.get(3), nullValue());
+    }
+
+    @Test
+    public void testHandlerFailure() {
+        try {
+            fallbackAll(tasks(10), to(IllegalStateException.class, e -> -1), 2);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Not a number"));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Bulkhead;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestBulkhead {
+
+    @Test
+    public void testFixedLimit() throws Exception {
+        Bulkhead bulkhead = Bulkhead.builder().name("backend").maxConcurrentCalls(1).build();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> bulkhead.fallback(() -> {
+            entered.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }, to(false)));
+        holder.start();
+        assertThat(entered.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(bulkhead.inFlight(), is(1));
+
+        assertThat(bulkhead.fallback(() -> TestHelper.foo(3), e -> e.getMessage()), is("Bulkhead 'backend' is full"));
+        try {
+            bulkhead.wrap(() -> TestHelper.foo(3), using(e -> new IllegalStateException("rejected", e)));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("rejected"));
+            assertThat(e.getCause() instanceof Bulkhead.RejectedException, is(true));
+        }
+        assertThat(bulkhead.rejectedCount(), is(2L));
+
+        release.countDown();
+        holder.join();
+        assertThat(bulkhead.inFlight(), is(0));
+        assertThat(bulkhead.fallback(() -> TestHelper.foo(3), to(2)), is(3));
+        assertThat(bulkhead.fallback(to(2), () -> TestHelper.foo("")), is(2));
+        assertThat(bulkhead.inFlight(), is(0));
+
+        try {
+            bulkhead.wrap(TestHelper::bar, using(IllegalStateException::new));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+    }
+
+    @Test
+    public void testAdaptiveLimit() {
+        Bulkhead bulkhead = Bulkhead.builder().adaptive(10, 2, 20, Duration.ofSeconds(1), 0.5).build();
+        assertThat(bulkhead.limit(), is(10));
+
+        // Each failure halves the limit, down to the minimum.
+        for (int i = 0; i < 5; i++) {
+            bulkhead.fallback(() -> TestHelper.foo(""), to(2));
+        }
+        assertThat(bulkhead.limit(), is(2));
+
+        // Successes in time add 1/limit each, so it takes about limit successes to grow by one.
+        for (int i = 0; i < 2; i++) {
+            bulkhead.fallback(() -> TestHelper.foo(1), to(2));
+        }
+        assertThat(bulkhead.limit(), is(2));
+        bulkhead.fallback(() -> TestHelper.foo(1), to(2));
+        assertThat(bulkhead.limit(), is(3));
+
+        for (int i = 0; i < 1000; i++) {
+            bulkhead.fallback(() -> TestHelper.foo(1), to(2));
+        }
+        assertThat(bulkhead.limit(), is(20));
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.CircuitBreaker;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestCircuitBreaker {
+
+    @Test
+    public void testOpenAndClose() throws Exception {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .name("test")
+                .minimumCalls(4)
+                .failureRateThreshold(0.5)
+                .waitInOpenState(Duration.ofMillis(50))
+                .permittedCallsInHalfOpenState(2)
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(breaker.fallback(() -> calls.incrementAndGet(), to(-1)), is(1));
+        assertThat(breaker.fallback(() -> calls.incrementAndGet(), to(-1)), is(2));
+        assertThat(breaker.fallback(() -> failing(calls), to(-1)), is(-1));
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+        assertThat(breaker.fallback(() -> failing(calls), to(-1)), is(-1));
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+
+        assertThat(breaker.fallback(() -> calls.incrementAndGet(), to(e -> e instanceof CircuitBreaker.OpenException ? -2 : -1)), is(-2));
+        assertThat(calls.get(), is(4));
+        try {
+            breaker.call(calls::incrementAndGet);
+            fail();
+        } catch (CircuitBreaker.OpenException e) {
+            assertThat(e.getMessage(), is("CircuitBreaker 'test' is open"));
+        }
+
+        Thread.sleep(60);
+        assertThat(breaker.state(), is(CircuitBreaker.State.HALF_OPEN));
+        assertThat(breaker.call(calls::incrementAndGet), is(5));
+        assertThat(breaker.call(calls::incrementAndGet), is(6));
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void testReopenOnTrialFailure() throws Exception {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .minimumCalls(1)
+                .waitInOpenState(Duration.ofMillis(20))
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(breaker.fallback(() -> failing(calls), to(-1)), is(-1));
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+
+        Thread.sleep(30);
+        assertThat(breaker.fallback(() -> failing(calls), to(-1)), is(-1));
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+        assertThat(calls.get(), is(2));
+    }
+
+    @Test
+    public void testErrorInTrialCall() throws Exception {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .minimumCalls(1)
+                .waitInOpenState(Duration.ofMillis(20))
+                .permittedCallsInHalfOpenState(1)
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(breaker.fallback(() -> failing(calls), to(-1)), is(-1));
+        Thread.sleep(30);
+        try {
+            breaker.fallback(() -> {
+                throw new AssertionError("trial");
+            }, to(-1));
+            fail();
+        } catch (AssertionError e) {
+            assertThat(e.getMessage(), is("trial"));
+        }
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+
+        Thread.sleep(30);
+        assertThat(breaker.call(calls::incrementAndGet), is(2));
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void testSecondHalfOpenRound() throws Exception {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .minimumCalls(1)
+                .waitInOpenState(Duration.ofMillis(300))
+                .permittedCallsInHalfOpenState(3)
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(breaker.fallback(() -> failing(calls), to(-1)), is(-1));
+        Thread.sleep(350);
+        // The trial fails, leaving 2 permits of the first round unused.
+        assertThat(breaker.fallback(() -> failing(calls), to(-1)), is(-1));
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+
+        Thread.sleep(350);
+        int threads = 8;
+        AtomicInteger entered = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Thread> trials = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread trial = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                breaker.fallback(() -> {
+                    entered.incrementAndGet();
+                    release.await();
+                    return 1;
+                }, to(e -> rejected.incrementAndGet()));
+            });
+            trial.start();
+            trials.add(trial);
+        }
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (entered.get() + rejected.get() < threads && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(entered.get(), is(3));
+        assertThat(rejected.get(), is(threads - 3));
+
+        release.countDown();
+        for (Thread trial : trials) {
+            trial.join();
+        }
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void testLateFailure() throws Exception {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .minimumCalls(1)
+                .waitInOpenState(Duration.ofSeconds(1))
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread late = new Thread(() -> breaker.fallback(() -> {
+            started.countDown();
+            Thread.sleep(200);
+            return failing(calls);
+        }, to(-1)));
+        late.start();
+        started.await();
+
+        long opened = System.nanoTime();
+        assertThat(breaker.fallback(() -> failing(calls), to(-1)), is(-1));
+        late.join();
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+        // Had the late failure (200 ms after opening) moved the start of the wait, the breaker would stay open until 1.2 s.
+        Thread.sleep(Math.max(0, 1100 - (System.nanoTime() - opened) / 1_000_000));
+        assertThat(breaker.state(), is(CircuitBreaker.State.HALF_OPEN));
+    }
+
+    @Test
+    public void testSlowCalls() {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .minimumCalls(2)
+                .slowCallDuration(Duration.ofMillis(5))
+                .slowCallRateThreshold(1.0)
+                .build();
+
+        assertThat(breaker.fallback(() -> sleep(10), to(-1)), is(10));
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+        assertThat(breaker.fallback(() -> sleep(10), to(-1)), is(10));
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+        assertThat(breaker.fallback(() -> sleep(10), to(e -> e)), instanceOf(CircuitBreaker.OpenException.class));
+    }
+
+    private static int failing(AtomicInteger calls) throws Exception {
+        calls.incrementAndGet();
+        throw new Exception("failure");
+    }
+
+    private static int sleep(int millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return millis;
+    }
+}
@@ -18,9 +18,15 @@ package io.github.ravichaturvedi.exceptionhandler.test;
 import io.github.ravichaturvedi.exceptionhandler.Cleanup;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import static io.github.ravichaturvedi.exceptionhandler.Cleanup.cleanup;
 import static io.github.ravichaturvedi.exceptionhandler.Cleanup.with;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 
 public class TestCleanup {
 
@@ -33,4 +39,16 @@ public class TestCleanup {
         cleanup(TestHelper::bar, with(System.out::println));
         cleanup(with(System.out::println), TestHelper::bar);
     }
+
+    @Test
+    public void testComposedHandler() {
+        List<String> cleaned = new ArrayList<>();
+        Cleanup.Handler handler = with(IOException.class, e -> cleaned.add("io"))
+                .andThen(with(e -> cleaned.add("all")));
+
+        cleanup(() -> {throw new IOException("");}, handler);
+        cleanup(TestHelper::bar, handler);
+        cleanup(with(IOException.class, e -> cleaned.add("io")), TestHelper::bar);
+        assertThat(cleaned.toString(), is("[io, all, all]"));
+    }
 }
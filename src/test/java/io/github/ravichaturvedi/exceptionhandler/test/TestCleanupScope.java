@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Cleanup;
+import io.github.ravichaturvedi.exceptionhandler.CleanupScope;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.with;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestCleanupScope {
+
+    @Test
+    public void testReverseOrder() throws Exception {
+        List<String> released = new ArrayList<>();
+        try (CleanupScope scope = Cleanup.scope()) {
+            for (int i = 0; i < 20; i++) {
+                String name = "r" + i;
+                scope.register(() -> released.add(name));
+            }
+            scope.onClose(() -> released.add("action"));
+            assertThat(scope.size(), is(21));
+        }
+        assertThat(released.size(), is(21));
+        assertThat(released.get(0), is("action"));
+        assertThat(released.get(1), is("r19"));
+        assertThat(released.get(20), is("r0"));
+    }
+
+    @Test
+    public void testSuppressed() {
+        List<String> released = new ArrayList<>();
+        try (CleanupScope scope = Cleanup.scope()) {
+            scope.register(() -> released.add("first"));
+            scope.register(() -> {
+                throw new IOException("second");
+            });
+            scope.onClose(() -> {
+                throw new IOException("third");
+            });
+            throw new IllegalStateException("body");
+        } catch (Exception e) {
+            assertThat(e.getMessage(), is("body"));
+            assertThat(e.getSuppressed().length, is(1));
+            assertThat(e.getSuppressed()[0].getCause().getMessage(), is("third"));
+            assertThat(e.getSuppressed()[0].getCause().getSuppressed()[0].getMessage(), is("second"));
+        }
+        assertThat(released.toString(), is("[first]"));
+
+        List<Exception> handled = new ArrayList<>();
+        CleanupScope scope = Cleanup.scope(with(handled::add));
+        scope.onClose(() -> {
+            throw new IOException("handled");
+        });
+        scope.close();
+        scope.close();
+        assertThat(handled.size(), is(1));
+        assertThat(handled.get(0).getMessage(), is("handled"));
+
+        try {
+            scope.register(() -> released.add("late"));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("CleanupScope is closed"));
+        }
+        assertThat(released.toString(), is("[first, late]"));
+    }
+
+    @Test
+    public void testUnchecked() {
+        CleanupScope scope = Cleanup.scope();
+        scope.onClose(() -> {
+            throw new IOException("checked");
+        });
+        try {
+            scope.close();
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), is("checked"));
+        }
+
+        scope = Cleanup.scope();
+        scope.onClose(() -> {
+            throw new IllegalArgumentException("unchecked");
+        });
+        try {
+            scope.close();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("unchecked"));
+        }
+    }
+
+    @Test
+    public void testShared() throws Exception {
+        AtomicInteger released = new AtomicInteger();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+        try (CleanupScope scope = Cleanup.sharedScope()) {
+            for (int t = 0; t < 4; t++) {
+                int worker = t;
+                new Thread(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        scope.register(released::incrementAndGet);
+                    }
+                    scope.onClose(() -> order.add(worker));
+                    done.countDown();
+                }).start();
+            }
+            done.await();
+            assertThat(scope.size(), is(4004));
+        }
+        assertThat(released.get(), is(4000));
+        assertThat(order.size(), is(4));
+    }
+}
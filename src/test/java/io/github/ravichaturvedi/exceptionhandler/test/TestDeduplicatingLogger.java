@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.DeduplicatingLogger;
+import io.github.ravichaturvedi.exceptionhandler.Fingerprint;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.swallow;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.usingLogger;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+public class TestDeduplicatingLogger {
+
+    private final List<String> logged = new ArrayList<>();
+    private final List<String> summaries = new ArrayList<>();
+
+    private static Exception failure(String message) {
+        return new Exception(message);
+    }
+
+    private static Exception otherFailure(String message) {
+        return new Exception(message);
+    }
+
+    private static Exception thirdFailure(String message) {
+        return new Exception(message);
+    }
+
+    @Test
+    public void testFingerprint() {
+        List<Long> fingerprints = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fingerprints.add(Fingerprint.of(failure("attempt " + i)));
+        }
+        assertThat(fingerprints.get(1), is(fingerprints.get(0)));
+        assertThat(fingerprints.get(2), is(fingerprints.get(0)));
+
+        assertThat(Fingerprint.of(otherFailure("attempt")), not(fingerprints.get(0)));
+        assertThat(Fingerprint.of(new IllegalStateException(failure("cause"))), not(Fingerprint.of(new IllegalStateException())));
+        assertThat(Fingerprint.of(failure("attempt"), 0), is(Fingerprint.of(otherFailure("attempt"), 0)));
+    }
+
+    @Test
+    public void testDeduplicate() throws Exception {
+        DeduplicatingLogger logger = DeduplicatingLogger.builder(e -> logged.add(e.getMessage()), (e, n) -> summaries.add(e.getMessage() + " seen " + n + " more times"))
+                .frames(2)
+                .summaryInterval(Duration.ofMillis(50))
+                .build();
+
+        for (int i = 0; i < 100; i++) {
+            swallow(TestHelper::bar, usingLogger(logger));
+        }
+        assertThat(logged.toString(), is("[bla bla]"));
+        assertThat(summaries.isEmpty(), is(true));
+
+        swallow(() -> TestHelper.foo(""), usingLogger(logger));
+        assertThat(logged.toString(), is("[bla bla, Not a number]"));
+
+        Thread.sleep(60);
+        swallow(TestHelper::bar, usingLogger(logger));
+        assertThat(summaries.toString(), is("[bla bla seen 100 more times]"));
+    }
+
+    @Test
+    public void testFlush() {
+        DeduplicatingLogger logger = DeduplicatingLogger.builder(e -> logged.add(e.getMessage()), (e, n) -> summaries.add(e.getMessage() + " seen " + n + " more times"))
+                .frames(1)
+                .summaryInterval(Duration.ofDays(1))
+                .build();
+
+        logger.log(failure("first"));
+        logger.log(failure("second"));
+        logger.log(failure("third"));
+        logger.log(otherFailure("other"));
+        assertThat(summaries.isEmpty(), is(true));
+
+        logger.flush();
+        assertThat(logged.toString(), is("[first, other]"));
+        assertThat(summaries.toString(), is("[third seen 2 more times]"));
+
+        logger.flush();
+        assertThat(summaries.toString(), is("[third seen 2 more times]"));
+    }
+
+    @Test
+    public void testEviction() {
+        DeduplicatingLogger logger = DeduplicatingLogger.builder(e -> logged.add(e.getMessage()), (e, n) -> summaries.add(e.getMessage() + " seen " + n + " more times"))
+                .frames(1)
+                .tableSize(1)
+                .build();
+
+        logger.log(failure("first"));
+        logger.log(failure("second"));
+        logger.log(otherFailure("other"));
+        logger.log(failure("third"));
+        assertThat(logged.toString(), is("[first, other, third]"));
+        assertThat(summaries.toString(), is("[second seen 1 more times]"));
+    }
+
+    @Test
+    public void testSet() {
+        DeduplicatingLogger logger = DeduplicatingLogger.builder(e -> logged.add(e.getMessage()), (e, n) -> summaries.add(e.getMessage() + " seen " + n + " more times"))
+                .frames(1)
+                .tableSize(2)
+                .build();
+
+        logger.log(failure("a"));
+        logger.log(otherFailure("b"));
+        logger.log(failure("c"));
+        logger.log(otherFailure("d"));
+        assertThat(logged.toString(), is("[a, b]"));
+        assertThat(summaries.isEmpty(), is(true));
+
+        logger.log(thirdFailure("x"));
+        logger.log(failure("e"));
+        assertThat(logged.toString(), is("[a, b, x, e]"));
+        assertThat(summaries.toString(), is("[c seen 1 more times, d seen 1 more times]"));
+    }
+}
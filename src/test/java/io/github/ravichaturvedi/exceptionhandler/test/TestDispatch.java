@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Cleanup;
+import io.github.ravichaturvedi.exceptionhandler.Fallback;
+import io.github.ravichaturvedi.exceptionhandler.Swallow;
+import io.github.ravichaturvedi.exceptionhandler.Wrap;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestDispatch {
+
+    private static final Fallback.Handler<String> FALLBACK = Fallback.<String>dispatch()
+            .on(IOException.class, e -> "io")
+            .on(FileNotFoundException.class, e -> "not found")
+            .on(TimeoutException.class, e -> "timeout")
+            .otherwise(Fallback.to("other"))
+            .build();
+
+    @Test
+    public void testFallback() {
+        assertThat(Fallback.fallback(() -> {throw new IOException();}, FALLBACK), is("io"));
+        assertThat(Fallback.fallback(() -> {throw new FileNotFoundException();}, FALLBACK), is("not found"));
+        assertThat(Fallback.fallback(() -> {throw new TimeoutException();}, FALLBACK), is("timeout"));
+        assertThat(Fallback.fallback(() -> {throw new SQLException();}, FALLBACK), is("other"));
+
+        try {
+            Fallback.fallback(() -> {throw new SQLException("sql");}, Fallback.<String>dispatch().on(IOException.class, e -> "io").build());
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), is("sql"));
+        }
+    }
+
+    @Test
+    public void testWrap() {
+        Wrap.Handler handler = Wrap.dispatch()
+                .on(IOException.class, UncheckedIOException::new)
+                .on(SQLException.class, IllegalStateException::new)
+                .build();
+
+        try {
+            Wrap.wrap(() -> {throw new FileNotFoundException("io");}, handler);
+            fail();
+        } catch (UncheckedIOException e) {
+            assertThat(e.getCause().getMessage(), is("io"));
+        }
+
+        try {
+            Wrap.wrap(() -> {throw new SQLException("sql");}, handler);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("sql"));
+        }
+
+        try {
+            Wrap.wrap(TestHelper::bar, handler);
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+
+        assertThat(handler.handles(new TimeoutException()), is(false));
+        assertThat(handler.orElse(Wrap.using(IllegalArgumentException::new)).handle(new TimeoutException()), instanceOf(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void testSwallowAndCleanup() {
+        List<String> handled = new ArrayList<>();
+        Swallow.Handler swallowHandler = Swallow.dispatch()
+                .on(IOException.class, e -> handled.add("swallow io"))
+                .otherwise(Swallow.usingLogger(e -> handled.add("swallow other")))
+                .build();
+        Cleanup.Handler cleanupHandler = Cleanup.dispatch()
+                .on(TimeoutException.class, e -> handled.add("cleanup timeout"))
+                .build();
+
+        Swallow.swallow(() -> {throw new FileNotFoundException();}, swallowHandler);
+        Swallow.swallow(TestHelper::bar, swallowHandler);
+        Cleanup.cleanup(() -> {throw new TimeoutException();}, cleanupHandler);
+        Cleanup.cleanup(TestHelper::bar, cleanupHandler);
+        assertThat(handled.toString(), is("[swallow io, swallow other, cleanup timeout]"));
+    }
+}
@@ -16,18 +16,30 @@
 package io.github.ravichaturvedi.exceptionhandler.test;
 
 
+import io.github.ravichaturvedi.exceptionhandler.Fallback;
 import org.junit.Test;
 
+import java.io.IOException;
+
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallback;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallbackBoolean;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallbackDouble;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallbackInt;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallbackLong;
 import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.toBoolean;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.toDouble;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.toInt;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.toLong;
 import static io.github.ravichaturvedi.exceptionhandler.Fallback.toFunc;
 import static io.github.ravichaturvedi.exceptionhandler.Wrap.wrap;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class TestFallback {
 
@@ -57,4 +69,45 @@ public class TestFallback {
             assertThat(e.getMessage(), is(""));
         }
     }
+
+    @Test
+    public void testFallbackPrimitives() {
+        assertThat(fallbackInt(() -> 3, toInt(2)), is(3));
+        assertThat(fallbackInt(() -> {throw new Exception("");}, toInt(2)), is(2));
+        assertThat(fallbackInt(toInt(() -> 2), () -> {throw new Exception("");}), is(2));
+        assertThat(fallbackInt(() -> {throw new Exception("bla");}, toInt(e -> e.getMessage().length())), is(3));
+
+        assertThat(fallbackLong(() -> 3L, toLong(2L)), is(3L));
+        assertThat(fallbackLong(() -> {throw new Exception("");}, toLong(() -> 2L)), is(2L));
+
+        assertThat(fallbackDouble(() -> 3.0, toDouble(2.0)), is(3.0));
+        assertThat(fallbackDouble(toDouble(e -> 2.0), () -> {throw new Exception("");}), is(2.0));
+
+        assertThat(fallbackBoolean(() -> true, toBoolean(false)), is(true));
+        assertThat(fallbackBoolean(() -> {throw new IllegalStateException("");}, toBoolean(e -> e instanceof IllegalStateException)), is(true));
+    }
+
+    private static final Fallback.Handler<String> HANDLER = Fallback.<IOException, String>to(IOException.class, e -> "io")
+            .orElse(to("other"));
+
+    @Test
+    public void testComposedHandler() {
+        assertThat(fallback(() -> {throw new IOException("");}, HANDLER), is("io"));
+        assertThat(fallback(() -> {throw new Exception("");}, HANDLER), is("other"));
+        assertThat(fallback(() -> {throw new Exception("", new IOException(""));}, HANDLER.mapping(e -> (Exception) e.getCause())), is("io"));
+
+        try {
+            fallback(() -> {throw new IllegalStateException("state");}, Fallback.<IOException, String>to(IOException.class, e -> "io"));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("state"));
+        }
+
+        try {
+            fallback(() -> {throw new Exception("bla bla");}, toFunc(IOException.class, e -> "io"));
+            fail();
+        } catch (Exception e) {
+            assertThat(e.getMessage(), is("bla bla"));
+        }
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.FallbackCache;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TestFallbackCache {
+
+    @Test
+    public void testStaleIfError() throws Exception {
+        FallbackCache<String, Object> cache = FallbackCache.builder().maxStaleness(Duration.ofMillis(100)).build();
+
+        assertThat(cache.fallback("a", () -> TestHelper.foo(""), to("default")), is("default"));
+        assertThat(cache.fallback("a", () -> TestHelper.foo(1), to("default")), is(1));
+        assertThat(cache.fallback("a", () -> TestHelper.foo(""), to("default")), is(1));
+        assertThat(cache.fallback("b", to("default"), () -> TestHelper.foo("")), is("default"));
+
+        Thread.sleep(150);
+        assertThat(cache.fallback("a", () -> TestHelper.foo(""), to("default")), is("default"));
+
+        cache.fallback("a", () -> TestHelper.foo(2), to("default"));
+        cache.invalidate("a");
+        assertThat(cache.fallback("a", () -> TestHelper.foo(""), to("default")), is("default"));
+
+        assertThat(cache.stats().toString(), is("Stats{hits=0, misses=7, staleServed=1, fallbacks=4, evictions=0}"));
+    }
+
+    @Test
+    public void testTtl() {
+        FallbackCache<String, Integer> cache = FallbackCache.builder().ttl(Duration.ofMinutes(1)).build();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(cache.fallback("a", calls::incrementAndGet, to(-1)), is(1));
+        assertThat(cache.fallback("a", calls::incrementAndGet, to(-1)), is(1));
+        assertThat(calls.get(), is(1));
+        assertThat(cache.stats().hits(), is(1L));
+        assertThat(cache.stats().misses(), is(1L));
+    }
+
+    @Test
+    public void testClockEviction() {
+        FallbackCache<Integer, Integer> cache = FallbackCache.builder().maximumSize(3).ttl(Duration.ofMinutes(1)).build();
+        for (int i = 0; i < 3; i++) {
+            int key = i;
+            cache.fallback(key, () -> key, to(-1));
+        }
+        // Reading 0 and 1 spares them from the next pass of the hand, 2 is evicted.
+        cache.fallback(0, () -> -1, to(-1));
+        cache.fallback(1, () -> -1, to(-1));
+        cache.fallback(3, () -> 3, to(-1));
+
+        assertThat(cache.size(), is(3));
+        assertThat(cache.stats().evictions(), is(1L));
+        assertThat(cache.fallback(0, () -> -1, to(-1)), is(0));
+        assertThat(cache.fallback(1, () -> -1, to(-1)), is(1));
+        assertThat(cache.fallback(2, () -> -1, to(-1)), is(-1));
+    }
+}
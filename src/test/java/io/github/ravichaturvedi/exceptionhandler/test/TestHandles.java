@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Handles;
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static java.lang.invoke.MethodType.methodType;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestHandles {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    @Test
+    public void testWrap() throws Throwable {
+        MethodHandle bar = LOOKUP.findStatic(TestHelper.class, "bar", methodType(void.class));
+        MethodHandle foo = LOOKUP.findStatic(TestHelper.class, "foo", methodType(Object.class, Object.class));
+
+        MethodHandle wrapped = Handles.wrap(bar, using(IllegalStateException::new));
+        assertThat(wrapped.type(), is(bar.type()));
+        try {
+            wrapped.invokeExact();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+        try {
+            Handles.wrap(bar).invokeExact();
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+
+        MethodHandle wrappedFoo = Handles.wrap(foo, using(IllegalStateException::new));
+        assertThat((Object) wrappedFoo.invokeExact((Object) 1), is(1));
+        try {
+            Object value = wrappedFoo.invokeExact((Object) "");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Not a number"));
+        }
+        try {
+            Object value = Handles.wrapAll(foo, using(IllegalStateException::new)).invokeExact((Object) "");
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("Not a number"));
+        }
+    }
+
+    @Test
+    public void testFallback() throws Throwable {
+        MethodHandle parse = LOOKUP.findStatic(Integer.class, "parseInt", methodType(int.class, String.class));
+        MethodHandle parseOrZero = Handles.fallback(parse, to(0));
+        assertThat(parseOrZero.type(), is(parse.type()));
+        assertThat((int) parseOrZero.invokeExact("12"), is(12));
+        assertThat((int) parseOrZero.invokeExact("x"), is(0));
+
+        MethodHandle foo = LOOKUP.findStatic(TestHelper.class, "foo", methodType(Object.class, Object.class));
+        MethodHandle fooOrMessage = Handles.fallback(to(Exception::getMessage), foo);
+        assertThat((Object) fooOrMessage.invokeExact((Object) ""), is("Not a number"));
+
+        MethodHandle bar = LOOKUP.findStatic(TestHelper.class, "bar", methodType(void.class));
+        Handles.fallback(bar, to((Object) null)).invokeExact();
+    }
+}
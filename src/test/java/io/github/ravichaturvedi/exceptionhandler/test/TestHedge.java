@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Hedge;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+public class TestHedge {
+
+    private static Callable<String> slow(String value, long millis, CountDownLatch interrupted) {
+        return () -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return value;
+        };
+    }
+
+    @Test
+    public void testHedge() throws Exception {
+        Hedge hedge = Hedge.builder().delay(Duration.ofMillis(200)).maxHedgeRatio(1).build();
+
+        assertThat(hedge.fallback(() -> "primary", () -> "backup", to("fallback")), is("primary"));
+        assertThat(hedge.hedgedCount(), is(0L));
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        assertThat(hedge.fallback(slow("primary", 5_000, interrupted), () -> "backup", to("fallback")), is("backup"));
+        assertThat(interrupted.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(hedge.hedgedCount(), is(1L));
+
+        long start = System.nanoTime();
+        assertThat(hedge.fallback(to("fallback"), () -> TestHelper.foo(""), () -> "backup"), is("backup"));
+        assertThat(System.nanoTime() - start, lessThan(TimeUnit.MILLISECONDS.toNanos(100)));
+
+        assertThat(hedge.fallback(() -> {
+            throw new Exception("primary");
+        }, () -> {
+            throw new Exception("backup");
+        }, e -> e.getMessage() + " " + e.getSuppressed()[0].getMessage()), is("primary backup"));
+    }
+
+    @Test
+    public void testMaxHedgeRatio() {
+        Hedge hedge = Hedge.builder().delay(Duration.ofMillis(10)).maxHedgeRatio(0.5).build();
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        assertThat(hedge.fallback(slow("primary", 50, interrupted), () -> "backup", to("fallback")), is("primary"));
+        assertThat(hedge.fallback(slow("primary", 50, interrupted), () -> "backup", to("fallback")), is("backup"));
+        assertThat(hedge.fallback(slow("primary", 50, interrupted), () -> "backup", to("fallback")), is("primary"));
+        assertThat(hedge.hedgedCount(), is(1L));
+        assertThat(hedge.fallback(() -> TestHelper.foo(""), () -> "backup", to("fallback")), is("backup"));
+        assertThat(hedge.hedgedCount(), is(2L));
+    }
+
+    @Test
+    public void testPercentileDelay() {
+        Hedge hedge = Hedge.builder().percentileDelay(0.9, Duration.ofSeconds(1), 10).build();
+        assertThat(hedge.delay(), is(Duration.ofSeconds(1)));
+        for (int i = 0; i < 10; i++) {
+            assertThat(hedge.fallback(() -> "primary", () -> "backup", to("fallback")), is("primary"));
+        }
+        assertThat(hedge.delay().compareTo(Duration.ofMillis(100)), lessThan(0));
+    }
+
+    @Test
+    public void testPercentileDelayWithBackup() {
+        Hedge hedge = Hedge.builder().percentileDelay(1, Duration.ofMillis(20), 2).maxHedgeRatio(1).build();
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        assertThat(hedge.fallback(() -> "primary", () -> "backup", to("fallback")), is("primary"));
+        assertThat(hedge.fallback(slow("primary", 5_000, interrupted), () -> "backup", to("fallback")), is("backup"));
+        assertThat(hedge.fallback(() -> "primary", () -> "backup", to("fallback")), is("primary"));
+        assertThat(hedge.delay().compareTo(Duration.ofMillis(15)), greaterThan(0));
+    }
+
+    @Test
+    public void testRejected() {
+        Hedge hedge = Hedge.builder().maxHedgeRatio(1).executor(r -> {
+            throw new RejectedExecutionException("full");
+        }).build();
+
+        assertThat(hedge.fallback(() -> "primary", () -> "backup", e -> e.getMessage() + " " + e.getSuppressed().length), is("full 1"));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Histogram;
+import io.github.ravichaturvedi.exceptionhandler.Metrics;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.usingLogger;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestMetrics {
+
+    @Test
+    public void testCallSite() {
+        Metrics.CallSite callSite = Metrics.callSite("test.callSite");
+        assertThat(Metrics.callSite("test.callSite") == callSite, is(true));
+
+        assertThat(callSite.fallback(() -> TestHelper.foo(3), to(2)), is(3));
+        assertThat(callSite.fallback(() -> TestHelper.foo(""), to(2)), is(2));
+        callSite.swallow(TestHelper::bar, usingLogger(e -> {}));
+        try {
+            callSite.wrap(TestHelper::bar, using(IllegalStateException::new));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+
+        Metrics.Snapshot snapshot = callSite.snapshot();
+        assertThat(snapshot.name(), is("test.callSite"));
+        assertThat(snapshot.invocations(), is(4L));
+        assertThat(snapshot.failures(), is(3L));
+        assertThat(snapshot.fallbacks(), is(1L));
+        assertThat(snapshot.failuresByType().get(IllegalArgumentException.class), is(1L));
+        assertThat(snapshot.failuresByType().get(Exception.class), is(2L));
+        assertThat(snapshot.latency().count(), is(4L));
+        assertThat(Metrics.snapshots().stream().anyMatch(s -> s.name().equals("test.callSite")), is(true));
+    }
+
+    @Test
+    public void testLatencyBeforeHandler() {
+        Metrics.CallSite callSite = Metrics.callSite("test.latency");
+        assertThat(callSite.fallback(() -> TestHelper.foo(""), to(e -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            return 2;
+        })), is(2));
+
+        Histogram.Snapshot latency = callSite.snapshot().latency();
+        assertThat(latency.count(), is(1L));
+        assertThat(latency.max() < TimeUnit.MILLISECONDS.toNanos(100), is(true));
+    }
+
+    @Test
+    public void testDisabled() {
+        Metrics.CallSite callSite = Metrics.callSite("test.disabled");
+        Metrics.setEnabled(false);
+        try {
+            assertThat(callSite.fallback(() -> TestHelper.foo(""), to(2)), is(2));
+        } finally {
+            Metrics.setEnabled(true);
+        }
+        assertThat(callSite.snapshot().invocations(), is(0L));
+    }
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(1000L));
+        assertThat(snapshot.max(), is(1_000_000L));
+        assertThat(snapshot.mean(), is(500_500.0));
+        assertThat(snapshot.percentile(1.0), is(1_000_000L));
+        assertThat(snapshot.percentile(0.5), greaterThanOrEqualTo(500_000L));
+        assertThat(snapshot.percentile(0.5), lessThanOrEqualTo(500_000L * 107 / 100));
+        assertThat(snapshot.percentile(0.99), greaterThanOrEqualTo(990_000L));
+
+        long total = 0;
+        for (int i = 0; i < snapshot.buckets(); i++) {
+            total += snapshot.bucketCount(i);
+            if (snapshot.bucketCount(i) > 0) {
+                assertThat(snapshot.bucketLowerBound(i), lessThanOrEqualTo(1_000_000L));
+            }
+        }
+        assertThat(total, is(1000L));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Bulkhead;
+import io.github.ravichaturvedi.exceptionhandler.CircuitBreaker;
+import io.github.ravichaturvedi.exceptionhandler.Policy;
+import io.github.ravichaturvedi.exceptionhandler.Retry;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.with;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.usingLogger;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestPolicy {
+
+    @Test
+    public void testRetryAndFallback() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> cleaned = new ArrayList<>();
+        Policy<Integer> policy = Policy.<Integer>builder()
+                .retry(Retry.upTo(3))
+                .cleanup(with(e -> cleaned.add(e.getMessage())))
+                .fallback(to(-1))
+                .build();
+
+        assertThat(policy.execute(() -> attempts.get() < 2 ? failing(attempts) : attempts.incrementAndGet()), is(3));
+        assertThat(cleaned.size(), is(0));
+
+        attempts.set(0);
+        assertThat(policy.execute(() -> failing(attempts)), is(-1));
+        assertThat(attempts.get(), is(3));
+        assertThat(cleaned.toString(), is("[attempt 3]"));
+    }
+
+    @Test
+    public void testWrapAndSwallow() {
+        Policy<Object> wrapping = Policy.builder().wrap(using(IllegalStateException::new)).build();
+        try {
+            wrapping.execute(() -> TestHelper.foo(""));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Not a number"));
+        }
+        try {
+            wrapping.execute(TestHelper::bar);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+
+        List<String> logged = new ArrayList<>();
+        Policy<Object> swallowing = Policy.builder().swallow(usingLogger(e -> logged.add(e.getMessage()))).build();
+        assertThat(swallowing.execute(() -> TestHelper.foo("")), nullValue());
+        assertThat(swallowing.execute(() -> TestHelper.foo(1)), is(1));
+        assertThat(logged.toString(), is("[Not a number]"));
+
+        try {
+            Policy.builder().build().execute(TestHelper::bar);
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+    }
+
+    @Test
+    public void testGuards() throws InterruptedException {
+        CircuitBreaker breaker = CircuitBreaker.builder().minimumCalls(2).failureRateThreshold(0.5).build();
+        Bulkhead bulkhead = Bulkhead.builder().maxConcurrentCalls(1).build();
+        Policy<Object> policy = Policy.builder()
+                .bulkhead(bulkhead)
+                .circuitBreaker(breaker)
+                .fallback(to(e -> e))
+                .build();
+
+        assertThat(policy.execute(() -> policy.execute(() -> 1)), instanceOf(Bulkhead.RejectedException.class));
+        assertThat(policy.execute(() -> failing(new AtomicInteger())), instanceOf(IOException.class));
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+        assertThat(policy.execute(() -> 1), instanceOf(CircuitBreaker.OpenException.class));
+        assertThat(bulkhead.inFlight(), is(0));
+
+        Policy<Object> timed = Policy.builder().timeout(Duration.ofMillis(20)).fallback(to(e -> e)).build();
+        assertThat(timed.execute(() -> {
+            Thread.sleep(1000);
+            return 1;
+        }), instanceOf(TimeoutException.class));
+        assertThat(Thread.interrupted(), is(false));
+        assertThat(timed.execute(() -> 1), is(1));
+    }
+
+    @Test
+    public void testRunnerAndError() throws InterruptedException {
+        CircuitBreaker breaker = CircuitBreaker.builder()
+                .minimumCalls(1)
+                .failureRateThreshold(0.5)
+                .waitInOpenState(Duration.ofSeconds(1))
+                .permittedCallsInHalfOpenState(1)
+                .build();
+        List<String> logged = new ArrayList<>();
+        Policy<Object> policy = Policy.builder()
+                .circuitBreaker(breaker)
+                .swallow(usingLogger(e -> logged.add(e.getClass().getSimpleName())))
+                .build();
+
+        AtomicInteger runs = new AtomicInteger();
+        policy.execute(() -> {
+            runs.incrementAndGet();
+            throw new IOException("run");
+        });
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+
+        awaitHalfOpen(breaker);
+        try {
+            policy.execute(() -> {
+                runs.incrementAndGet();
+                throw new Error("trial");
+            });
+            fail();
+        } catch (Error e) {
+            assertThat(e.getMessage(), is("trial"));
+        }
+        assertThat(breaker.state(), is(CircuitBreaker.State.OPEN));
+
+        // The failed trial opened the breaker again, so the next trial waits the whole open state again.
+        awaitHalfOpen(breaker);
+        policy.execute(runs::incrementAndGet);
+        assertThat(breaker.state(), is(CircuitBreaker.State.CLOSED));
+        assertThat(runs.get(), is(3));
+        assertThat(logged.toString(), is("[IOException]"));
+    }
+
+    private static void awaitHalfOpen(CircuitBreaker breaker) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (breaker.state() != CircuitBreaker.State.HALF_OPEN && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(breaker.state(), is(CircuitBreaker.State.HALF_OPEN));
+    }
+
+    private static Integer failing(AtomicInteger attempts) throws IOException {
+        throw new IOException("attempt " + attempts.incrementAndGet());
+    }
+}
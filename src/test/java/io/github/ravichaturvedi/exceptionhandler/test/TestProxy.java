@@ -0,0 +1,144 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Fallback;
+import io.github.ravichaturvedi.exceptionhandler.Wrap;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestProxy {
+
+    public interface Dao {
+        String find(int id) throws SQLException;
+
+        long count(String table, double ratio, long offset) throws Exception;
+
+        void delete(long id) throws IOException;
+
+        int parse(String value);
+
+        default String findOrNone(int id) throws SQLException {
+            String found = find(id);
+            return found == null ? "none" : found;
+        }
+    }
+
+    public static class FailingDao implements Dao {
+        final List<String> calls = new ArrayList<>();
+
+        @Override
+        public String find(int id) throws SQLException {
+            calls.add("find " + id);
+            if (id < 0) {
+                throw new SQLException("no row " + id);
+            }
+            return id == 0 ? null : "row " + id;
+        }
+
+        @Override
+        public long count(String table, double ratio, long offset) throws Exception {
+            calls.add("count " + table + " " + ratio + " " + offset);
+            if (offset < 0) {
+                throw new Exception("negative offset");
+            }
+            return (long) (offset * ratio);
+        }
+
+        @Override
+        public void delete(long id) throws IOException {
+            calls.add("delete " + id);
+            throw new IOException("read only");
+        }
+
+        @Override
+        public int parse(String value) {
+            return Integer.parseInt(value);
+        }
+    }
+
+    @Test
+    public void testWrap() throws Exception {
+        FailingDao target = new FailingDao();
+        Dao dao = Wrap.proxy(Dao.class, target, using(IllegalStateException::new));
+
+        assertThat(dao.find(1), is("row 1"));
+        assertThat(dao.findOrNone(0), is("none"));
+        assertThat(dao.count("users", 0.5, 10L), is(5L));
+        assertThat(dao.parse("7"), is(7));
+        try {
+            dao.find(-1);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("no row -1"));
+        }
+        try {
+            dao.delete(3);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("read only"));
+        }
+        try {
+            dao.parse("x");
+            fail();
+        } catch (NumberFormatException e) {
+            assertThat(e.getMessage(), is("For input string: \"x\""));
+        }
+        assertThat(target.calls.toString(), is("[find 1, find 0, count users 0.5 10, find -1, delete 3]"));
+
+        try {
+            Wrap.proxy(Dao.class, target).delete(4);
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), is("read only"));
+        }
+        assertThat(Wrap.proxy(Dao.class, target).getClass() == dao.getClass(), is(true));
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        FailingDao target = new FailingDao();
+
+        Dao dao = Fallback.proxy(Dao.class, target, to(e -> null));
+        assertThat(dao.find(-1), nullValue());
+        assertThat(dao.find(2), is("row 2"));
+        dao.delete(1);
+
+        Dao counting = Fallback.proxy(Dao.class, target, to(-1L));
+        assertThat(counting.count("users", 1, -1L), is(-1L));
+
+        Dao parsing = Fallback.proxy(Dao.class, target, to(0));
+        assertThat(parsing.parse("x"), is(0));
+        assertThat(parsing.parse("12"), is(12));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotAnInterface() {
+        Wrap.proxy(FailingDao.class, new FailingDao());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.toFunc;
+import static io.github.ravichaturvedi.exceptionhandler.Result.attempt;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.usingLogger;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestResult {
+
+    @Test
+    public void testAttempt() {
+        Result<Object> success = attempt(() -> TestHelper.foo(3));
+        assertThat(success.isSuccess(), is(true));
+        assertThat(success.get(), is(3));
+        assertThat(success.failure(), nullValue());
+        assertThat(success.toString(), is("Success(3)"));
+
+        Result<Object> failure = attempt(() -> TestHelper.foo(""));
+        assertThat(failure.isFailure(), is(true));
+        assertThat(failure.failure().getMessage(), is("Not a number"));
+        assertThat(failure.orElse(to(2)), is(2));
+        try {
+            failure.get();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("Not a number"));
+        }
+
+        Result<Object> checked = attempt(() -> {
+            TestHelper.bar();
+            return null;
+        });
+        try {
+            checked.get(using(IllegalStateException::new));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+    }
+
+    @Test
+    public void testSingletons() {
+        assertThat(attempt(() -> null) == Result.success(null), is(true));
+        assertThat(attempt(() -> true) == Result.success(Boolean.TRUE), is(true));
+        assertThat(attempt(() -> false) == Result.success(false), is(true));
+        assertThat(Result.success(1) == Result.success(1), is(false));
+    }
+
+    @Test
+    public void testOperators() {
+        assertThat(Result.success("12").map(Integer::parseInt).map(i -> i * 2).get(), is(24));
+        assertThat(Result.success("x").map(Integer::parseInt).failure(), instanceOf(NumberFormatException.class));
+        assertThat(Result.success("12").flatMap(s -> attempt(() -> Integer.parseInt(s))).get(), is(12));
+
+        Result<Integer> failure = Result.failure(new IOException("io"));
+        assertThat(failure.map(i -> i * 2) == (Object) failure, is(true));
+        assertThat(failure.recover(to(IOException.class, e -> 2)).get(), is(2));
+        assertThat(failure.recover(to(IllegalStateException.class, e -> 2)) == failure, is(true));
+        assertThat(failure.recover(e -> -1).get(), is(-1));
+        assertThat(failure.tryRecover(toFunc(e -> {
+            throw new IOException("again");
+        })).failure().getMessage(), is("again"));
+        assertThat(failure.mapFailure(using(IOException.class, e -> new IllegalStateException("mapped"))).failure().getMessage(), is("mapped"));
+
+        List<String> logged = new ArrayList<>();
+        failure.onFailure(usingLogger(e -> logged.add(e.getMessage())));
+        Result.success(1).onFailure(usingLogger(e -> logged.add(e.getMessage())));
+        assertThat(logged.toString(), is("[io]"));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Retry;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.exceptionhandler.Retry.*;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestRetry {
+
+    @Test
+    public void testRetry() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        int value = retry(() -> failUntil(calls, 3), upTo(3));
+        assertThat(value, is(3));
+
+        calls.set(0);
+        try {
+            retry(upTo(2).backoff(fixed(Duration.ofMillis(1))), () -> failUntil(calls, 3));
+            fail();
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("attempt 2"));
+        }
+
+        calls.set(0);
+        retry(() -> {
+            failUntil(calls, 2);
+        }, upTo(2));
+        assertThat(calls.get(), is(2));
+    }
+
+    @Test
+    public void testRetryOn() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Retry.Handler handler = upTo(5).on(IOException.class).on(TimeoutException.class, e -> e.getMessage() == null);
+
+        assertThat(retry(() -> failUntil(calls, 3), handler), is(3));
+
+        calls.set(0);
+        try {
+            retry(() -> {
+                calls.incrementAndGet();
+                throw new TimeoutException("do not retry");
+            }, handler);
+            fail();
+        } catch (TimeoutException e) {
+            assertThat(calls.get(), is(1));
+        }
+
+        calls.set(0);
+        try {
+            retry(() -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException();
+            }, handler);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(calls.get(), is(1));
+        }
+    }
+
+    @Test
+    public void testBudget() throws Exception {
+        Retry.Handler handler = upTo(10).budget(Budget.of(3, 0.001));
+        AtomicInteger calls = new AtomicInteger();
+        try {
+            retry(() -> failUntil(calls, 100), handler);
+            fail();
+        } catch (IOException e) {
+            assertThat(calls.get(), is(4));
+        }
+
+        calls.set(0);
+        try {
+            retry(() -> failUntil(calls, 100), handler);
+            fail();
+        } catch (IOException e) {
+            assertThat(calls.get(), is(1));
+        }
+    }
+
+    @Test
+    public void testBudgetOverflow() {
+        // 10 tokens refilled every 10^18 ns don't fit in a long, the burst saturates at the 9 tokens which do.
+        Budget budget = Budget.of(10, 1e-9);
+        int acquired = 0;
+        for (int i = 0; i < 20; i++) {
+            acquired += budget.tryAcquire() ? 1 : 0;
+        }
+        assertThat(acquired, is(9));
+    }
+
+    @Test
+    public void testBackoff() {
+        Duration base = Duration.ofMillis(10);
+        Duration max = Duration.ofMillis(100);
+        assertThat(exponential(base, max).delayNanos(1, 0), is(TimeUnit.MILLISECONDS.toNanos(10)));
+        assertThat(exponential(base, max).delayNanos(3, 0), is(TimeUnit.MILLISECONDS.toNanos(40)));
+        assertThat(exponential(base, max).delayNanos(100, 0), is(TimeUnit.MILLISECONDS.toNanos(100)));
+
+        for (int retry = 1; retry < 100; retry++) {
+            long full = fullJitter(base, max).delayNanos(retry, 0);
+            assertThat(full, greaterThanOrEqualTo(0L));
+            assertThat(full, lessThanOrEqualTo(exponential(base, max).delayNanos(retry, 0)));
+
+            long decorrelated = decorrelatedJitter(base, max).delayNanos(retry, TimeUnit.MILLISECONDS.toNanos(20));
+            assertThat(decorrelated, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10)));
+            assertThat(decorrelated, lessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(60)));
+        }
+
+        Duration longest = Duration.ofNanos(Long.MAX_VALUE);
+        assertThat(fullJitter(longest, longest).delayNanos(1, 0), greaterThanOrEqualTo(0L));
+    }
+
+    @Test
+    public void testRetryAsync() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            AtomicInteger calls = new AtomicInteger();
+            CompletableFuture<Integer> future = retryAsync(() -> failUntil(calls, 3), upTo(3).backoff(fixed(Duration.ofMillis(1))), scheduler);
+            assertThat(future.get(5, TimeUnit.SECONDS), is(3));
+
+            calls.set(0);
+            future = retryAsync(() -> failUntil(calls, 3), upTo(2), scheduler);
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause().getMessage(), is("attempt 2"));
+            }
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static int failUntil(AtomicInteger calls, int succeedAt) throws IOException {
+        int attempt = calls.incrementAndGet();
+        if (attempt < succeedAt) {
+            throw new IOException("attempt " + attempt);
+        }
+        return attempt;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.SingleFlight;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestSingleFlight {
+
+    private static final int CALLERS = 8;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // Holds the call in flight until all the callers are waiting for it.
+    private <V> Callable<V> held(Callable<V> callable) {
+        return () -> {
+            calls.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return callable.call();
+        };
+    }
+
+    private <V> List<V> concurrently(SingleFlight<String, ?> flight, Callable<V> caller) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<V>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(caller));
+            }
+            while (flight.inFlight() == 0 || calls.get() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            List<V> results = new ArrayList<>();
+            for (Future<V> future : futures) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFallback() throws Exception {
+        SingleFlight<String, Object> flight = SingleFlight.withMaxWait(Duration.ofSeconds(5));
+        AtomicInteger handled = new AtomicInteger();
+        List<Object> results = concurrently(flight, () -> flight.fallback("key", held(() -> TestHelper.foo("")), e -> "fallback " + handled.incrementAndGet()));
+
+        assertThat(calls.get(), is(1));
+        assertThat(handled.get(), is(CALLERS));
+        for (Object result : results) {
+            assertThat(result.toString().startsWith("fallback "), is(true));
+        }
+        assertThat(flight.inFlight(), is(0));
+    }
+
+    @Test
+    public void testMixed() throws Exception {
+        SingleFlight<String, Object> flight = SingleFlight.withMaxWait(Duration.ofSeconds(5));
+        AtomicInteger callers = new AtomicInteger();
+        List<Object> results = concurrently(flight, () -> {
+            Callable<Object> failing = held(() -> {
+                throw new IOException("boom");
+            });
+            if (callers.incrementAndGet() % 2 == 0) {
+                return flight.fallback("key", failing, to("fallback"));
+            }
+            try {
+                return flight.call("key", failing);
+            } catch (IOException e) {
+                return "thrown " + e.getMessage();
+            }
+        });
+
+        assertThat(calls.get(), is(1));
+        int fallbacks = 0;
+        for (Object result : results) {
+            if ("fallback".equals(result)) {
+                fallbacks++;
+            } else {
+                assertThat(result, is("thrown boom"));
+            }
+        }
+        assertThat(fallbacks, is(CALLERS / 2));
+    }
+
+    @Test
+    public void testCall() throws Exception {
+        SingleFlight<String, Object> flight = SingleFlight.withMaxWait(Duration.ofSeconds(5));
+        List<Object> results = concurrently(flight, () -> flight.call("key", held(() -> TestHelper.foo(3))));
+        assertThat(calls.get(), is(1));
+        for (Object result : results) {
+            assertThat(result, is(3));
+        }
+
+        try {
+            flight.call("key", () -> {
+                TestHelper.bar();
+                return null;
+            });
+            fail();
+        } catch (Exception e) {
+            assertThat(e.getMessage(), is("bla bla"));
+        }
+    }
+
+    @Test
+    public void testMaxWait() throws Exception {
+        SingleFlight<String, String> flight = SingleFlight.withMaxWait(Duration.ofMillis(20));
+        CountDownLatch entered = new CountDownLatch(1);
+        Thread leader = new Thread(() -> flight.fallback("key", () -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "leader";
+        }, to("fallback")));
+        leader.start();
+        assertThat(entered.await(5, TimeUnit.SECONDS), is(true));
+
+        assertThat(flight.fallback("key", to("unused"), () -> "unused"), is("unused"));
+        assertThat(flight.fallback("key", () -> "unused", e -> e instanceof TimeoutException ? "gave up" : "other"), is("gave up"));
+        assertThat(flight.fallback("other", () -> "other", to("fallback")), is("other"));
+        release.countDown();
+        leader.join();
+    }
+}
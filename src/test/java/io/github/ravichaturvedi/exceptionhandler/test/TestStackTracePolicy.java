@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.StackTracePolicy;
+import io.github.ravichaturvedi.exceptionhandler.Wrap;
+import io.github.ravichaturvedi.exceptionhandler.WrappedException;
+import org.junit.After;
+import org.junit.Test;
+
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.setDefaultStackTracePolicy;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.wrap;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestStackTracePolicy {
+
+    @After
+    public void reset() {
+        setDefaultStackTracePolicy(StackTracePolicy.full());
+    }
+
+    @Test
+    public void testNone() {
+        RuntimeException e = failure(StackTracePolicy.none());
+        assertThat(e, instanceOf(WrappedException.class));
+        assertThat(e.getStackTrace().length, is(0));
+        assertThat(e.getCause().getMessage(), is("bla bla"));
+    }
+
+    @Test
+    public void testSampled() {
+        StackTracePolicy policy = StackTracePolicy.sampled(3);
+        setDefaultStackTracePolicy(policy);
+        for (int i = 0; i < 7; i++) {
+            RuntimeException e = failure();
+            assertThat(e.getStackTrace().length > 0, is(i % 3 == 0));
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+    }
+
+    @Test
+    public void testSampledDefaultAcrossCallers() {
+        setDefaultStackTracePolicy(StackTracePolicy.sampled(2));
+        assertThat(failure().getStackTrace().length > 0, is(true));
+        assertThat(otherFailure().getStackTrace().length > 0, is(false));
+        assertThat(failure().getStackTrace().length > 0, is(true));
+        assertThat(otherFailure().getStackTrace().length > 0, is(false));
+
+        Wrap.Handler handler = using(StackTracePolicy.sampled(2));
+        assertThat(failure(handler).getStackTrace().length > 0, is(true));
+        assertThat(otherFailure().getStackTrace().length > 0, is(true));
+    }
+
+    @Test
+    public void testTruncated() {
+        RuntimeException e = failure(StackTracePolicy.truncated(2));
+        assertThat(e.getStackTrace().length, is(2));
+        assertThat(e.getStackTrace()[0].getClassName(), is(TestStackTracePolicy.class.getName()));
+        assertThat(e.getCause().getMessage(), is("bla bla"));
+    }
+
+    @Test
+    public void testTruncatedKeepsInnerLibraryFrames() {
+        RuntimeException e = wrap(() -> failure(StackTracePolicy.truncated(10)));
+        assertThat(e.getStackTrace()[0].getClassName(), is(TestStackTracePolicy.class.getName()));
+        boolean wrapFrame = false;
+        for (StackTraceElement frame : e.getStackTrace()) {
+            wrapFrame |= frame.getClassName().equals(Wrap.class.getName());
+        }
+        assertThat(wrapFrame, is(true));
+    }
+
+    @Test
+    public void testFull() {
+        RuntimeException e = failure(StackTracePolicy.full());
+        assertThat(e.getClass().getName(), is(RuntimeException.class.getName()));
+        assertThat(e.getStackTrace().length, greaterThan(2));
+    }
+
+    private static RuntimeException failure(StackTracePolicy policy) {
+        try {
+            wrap(TestHelper::bar, using(policy));
+        } catch (RuntimeException e) {
+            return e;
+        }
+        fail();
+        return null;
+    }
+
+    private static RuntimeException failure(Wrap.Handler handler) {
+        try {
+            wrap(TestHelper::bar, handler);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        fail();
+        return null;
+    }
+
+    private static RuntimeException otherFailure() {
+        try {
+            wrap(() -> TestHelper.bar());
+        } catch (RuntimeException e) {
+            return e;
+        }
+        fail();
+        return null;
+    }
+
+    private static RuntimeException failure() {
+        try {
+            wrap(TestHelper::bar);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        fail();
+        return null;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Subtasks;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.with;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestSubtasks {
+
+    @Test
+    public void testInvokeAll() {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+            tasks.add(() -> value * 2);
+        }
+        assertThat(Subtasks.invokeAll(tasks, using(IllegalStateException::new)).toString(), is("[0, 2, 4, 6, 8, 10, 12, 14, 16, 18]"));
+        assertThat(Subtasks.invokeAll(Collections.<Callable<Integer>>emptyList(), using(IllegalStateException::new)).size(), is(0));
+
+        AtomicInteger ran = new AtomicInteger();
+        Subtasks.runAll(Arrays.asList(ran::incrementAndGet, ran::incrementAndGet), using(IllegalStateException::new));
+        assertThat(ran.get(), is(2));
+    }
+
+    @Test
+    public void testFailFast() {
+        List<String> closed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger interrupted = new AtomicInteger();
+        List<Callable<Object>> tasks = Arrays.asList(
+                () -> (AutoCloseable) () -> closed.add("partial"),
+                () -> {
+                    Thread.sleep(50);
+                    throw new IOException("failed");
+                },
+                () -> sleep(interrupted));
+
+        long start = System.nanoTime();
+        try {
+            Subtasks.invokeAll(tasks, using(IllegalStateException::new), with(e -> fail()));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("failed"));
+        }
+        assertThat(System.nanoTime() - start, lessThan(5_000_000_000L));
+        assertThat(interrupted.get(), is(1));
+        assertThat(closed.toString(), is("[partial]"));
+        assertThat(Thread.currentThread().isInterrupted(), is(false));
+    }
+
+    @Test
+    public void testInvokeAny() {
+        AtomicInteger interrupted = new AtomicInteger();
+        List<Callable<Object>> tasks = Arrays.asList(() -> sleep(interrupted), () -> {
+            Thread.sleep(20);
+            return "fast";
+        });
+        assertThat(Subtasks.invokeAny(tasks, using(IllegalStateException::new)), is("fast"));
+        assertThat(interrupted.get(), is(1));
+
+        List<Callable<Object>> failing = Arrays.asList(() -> {
+            throw new IOException("first");
+        }, () -> {
+            Thread.sleep(20);
+            throw new IOException("second");
+        });
+        try {
+            Subtasks.invokeAny(failing, using(IllegalStateException::new));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("first"));
+            assertThat(e.getCause().getSuppressed()[0].getMessage(), is("second"));
+        }
+    }
+
+    private static Object sleep(AtomicInteger interrupted) throws InterruptedException {
+        try {
+            Thread.sleep(10_000);
+            return "slow";
+        } catch (InterruptedException e) {
+            interrupted.incrementAndGet();
+            throw e;
+        }
+    }
+}
@@ -16,9 +16,16 @@
 package io.github.ravichaturvedi.exceptionhandler.test;
 
 
+import io.github.ravichaturvedi.exceptionhandler.Swallow;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import static io.github.ravichaturvedi.exceptionhandler.Swallow.*;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
 
 
 public class TestSwallow {
@@ -32,4 +39,16 @@ public class TestSwallow {
         swallow(TestHelper::bar, usingLogger(System.out::println));
         swallow(usingLogger(System.out::println), TestHelper::bar);
     }
+
+    @Test
+    public void testComposedHandler() {
+        List<String> logged = new ArrayList<>();
+        Swallow.Handler handler = usingLogger(IOException.class, e -> logged.add("io"))
+                .orElse(usingLogger(e -> logged.add("other")))
+                .andThen(usingLogger(e -> logged.add("all")));
+
+        swallow(() -> {throw new IOException("");}, handler);
+        swallow(TestHelper::bar, handler);
+        assertThat(logged.toString(), is("[io, all, other, all]"));
+    }
 }
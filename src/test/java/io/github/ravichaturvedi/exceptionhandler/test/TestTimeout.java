@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Timeout.fallback;
+import static io.github.ravichaturvedi.exceptionhandler.Timeout.wrap;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.using;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestTimeout {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(50);
+
+    private static String sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return "slept";
+    }
+
+    @Test
+    public void testFallback() {
+        assertThat(fallback(() -> TestHelper.foo(3), TIMEOUT, to(2)), is(3));
+        assertThat(fallback(to(2), TIMEOUT, () -> TestHelper.foo("")), is(2));
+
+        long start = System.nanoTime();
+        assertThat(fallback(() -> sleep(5_000), TIMEOUT, e -> e.getClass().getSimpleName() + " " + e.getCause().getClass().getSimpleName()),
+                is("TimeoutException InterruptedException"));
+        assertThat(System.nanoTime() - start, lessThan(TimeUnit.SECONDS.toNanos(1)));
+        assertThat(Thread.currentThread().isInterrupted(), is(false));
+    }
+
+    @Test
+    public void testWrap() {
+        assertThat(wrap(() -> sleep(1), Duration.ofSeconds(5)), is("slept"));
+
+        try {
+            wrap(() -> sleep(5_000), TIMEOUT, using(TimeoutException.class, e -> new IllegalStateException("timed out")));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("timed out"));
+        }
+
+        try {
+            wrap(() -> sleep(5_000), TIMEOUT);
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        }
+
+        try {
+            wrap(using(IllegalStateException::new), TIMEOUT, TestHelper::bar);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+        assertThat(Thread.currentThread().isInterrupted(), is(false));
+    }
+
+    @Test
+    public void testIgnoredInterrupt() {
+        // The code-block doesn't check the interruption, its value is kept and the interruption doesn't leak.
+        assertThat(fallback(() -> {
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            while (System.nanoTime() < end) {
+                Thread.yield();
+            }
+            return "done";
+        }, Duration.ofMillis(10), to("fallback")), is("done"));
+        assertThat(Thread.currentThread().isInterrupted(), is(false));
+    }
+
+    @Test
+    public void testPendingInterrupt() {
+        // The interruption pending before the call is not the deadline's, it is kept.
+        Thread.currentThread().interrupt();
+        assertThat(fallback(() -> {
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            while (System.nanoTime() < end) {
+                Thread.yield();
+            }
+            return "done";
+        }, Duration.ofMillis(10), to("fallback")), is("done"));
+        assertThat(Thread.interrupted(), is(true));
+    }
+
+    @Test
+    public void testHugeTimeout() {
+        assertThat(fallback(() -> sleep(20), Duration.ofNanos(Long.MAX_VALUE), to("fallback")), is("slept"));
+        assertThat(fallback(() -> sleep(20), Duration.ofDays(365 * 1000), to("fallback")), is("slept"));
+    }
+
+    @Test
+    public void testCancelled() throws InterruptedException {
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(fallback(() -> TestHelper.foo(1), Duration.ofMillis(5), to(2)), is(1));
+        }
+        Thread.sleep(50);
+        assertThat(Thread.currentThread().isInterrupted(), is(false));
+    }
+}
@@ -16,11 +16,17 @@
 package io.github.ravichaturvedi.exceptionhandler.test;
 
 
+import io.github.ravichaturvedi.exceptionhandler.Wrap;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+
 import static io.github.ravichaturvedi.exceptionhandler.Wrap.*;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class TestWrap {
 
@@ -62,4 +68,68 @@ public class TestWrap {
             assertThat(e.getCause().getMessage(), is("bla bla"));
         }
     }
+
+    @Test
+    public void testWrapPrimitives() {
+        assertThat(wrapInt(() -> 3), is(3));
+        assertThat(wrapLong(() -> 3L, using(IllegalArgumentException::new)), is(3L));
+        assertThat(wrapDouble(using(IllegalArgumentException::new), () -> 3.0), is(3.0));
+        assertThat(wrapAllBoolean(() -> true, using(IllegalArgumentException::new)), is(true));
+
+        try {
+            wrapInt(() -> {throw new Exception("bla bla");});
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+
+        try {
+            wrapLong(() -> {throw new Exception("bla bla");}, using(IllegalArgumentException::new));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+
+        try {
+            wrapAllDouble(using(IllegalArgumentException::new), () -> {throw new IllegalStateException("bla bla");});
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+    }
+
+    private static final Wrap.Handler HANDLER = using(IOException.class, UncheckedIOException::new)
+            .orElse(using(IllegalStateException::new));
+
+    @Test
+    public void testComposedHandler() {
+        try {
+            wrap(() -> {throw new IOException("io");}, HANDLER);
+            fail();
+        } catch (UncheckedIOException e) {
+            assertThat(e.getCause().getMessage(), is("io"));
+        }
+
+        try {
+            wrap(TestHelper::bar, HANDLER);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+
+        try {
+            wrap(() -> {throw new ExecutionException(new IOException("io"));}, HANDLER.mapping(e -> (Exception) e.getCause()));
+            fail();
+        } catch (UncheckedIOException e) {
+            assertThat(e.getCause().getMessage(), is("io"));
+        }
+
+        try {
+            wrap(TestHelper::bar, using(IOException.class, UncheckedIOException::new));
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getClass().getName(), is(RuntimeException.class.getName()));
+            assertThat(e.getCause().getMessage(), is("bla bla"));
+        }
+    }
 }
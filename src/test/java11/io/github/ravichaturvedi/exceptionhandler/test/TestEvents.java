@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 The ExceptionHandler AUTHORS.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.ravichaturvedi.exceptionhandler.test;
+
+
+import io.github.ravichaturvedi.exceptionhandler.Fallback;
+import io.github.ravichaturvedi.exceptionhandler.Handles;
+import io.github.ravichaturvedi.exceptionhandler.Metrics;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.cleanup;
+import static io.github.ravichaturvedi.exceptionhandler.Cleanup.with;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.fallback;
+import static io.github.ravichaturvedi.exceptionhandler.Fallback.to;
+import static io.github.ravichaturvedi.exceptionhandler.Swallow.swallow;
+import static io.github.ravichaturvedi.exceptionhandler.Wrap.wrap;
+import static java.lang.invoke.MethodType.methodType;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestEvents {
+
+    private static final String EVENT = "io.github.ravichaturvedi.exceptionhandler.HandledException";
+
+    @Test
+    public void testEvents() throws Throwable {
+        // Not recorded, the event is not enabled yet.
+        swallow(TestHelper::bar);
+
+        Path file = Files.createTempFile("handled", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT);
+            recording.start();
+
+            swallow(TestHelper::bar);
+            assertThat(fallback(() -> TestHelper.foo(""), to(2)), is(2));
+            assertThat(fallback(() -> TestHelper.foo(3), to(2)), is(3));
+            cleanup(() -> TestHelper.foo(""), with(e -> {}));
+            try {
+                wrap(TestHelper::bar);
+                fail();
+            } catch (RuntimeException e) {
+                assertThat(e.getCause().getMessage(), is("bla bla"));
+            }
+            assertThat(Metrics.callSite("test.events").fallback(() -> TestHelper.foo(""), to(2)), is(2));
+            MethodHandle parse = MethodHandles.lookup().findStatic(Integer.class, "parseInt", methodType(int.class, String.class));
+            assertThat((int) Handles.fallback(parse, e -> -1).invokeExact("x"), is(-1));
+            Callable<?> proxy = Fallback.proxy(Callable.class, () -> TestHelper.foo(""), to(2));
+            assertThat(proxy.call(), is(2));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<String> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            assertThat(event.getString("callSite"), startsWith(TestEvents.class.getName()));
+            assertThat(event.getLong("blockDuration") >= 0, is(true));
+            events.add(event.getString("operation") + " " + event.getClass("exceptionClass").getName() + " " + event.getString("message"));
+        }
+        Files.delete(file);
+
+        assertThat(events.toString(), is("[swallow java.lang.Exception bla bla, "
+                + "fallback java.lang.IllegalArgumentException Not a number, "
+                + "cleanup java.lang.IllegalArgumentException Not a number, "
+                + "wrap java.lang.Exception bla bla, "
+                + "fallback java.lang.IllegalArgumentException Not a number, "
+                + "fallback java.lang.NumberFormatException For input string: \"x\", "
+                + "fallback java.lang.IllegalArgumentException Not a number]"));
+    }
+}